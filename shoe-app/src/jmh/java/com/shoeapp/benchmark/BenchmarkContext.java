@@ -0,0 +1,64 @@
+package com.shoeapp.benchmark;
+
+import com.shoeapp.ShoeAppApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.UUID;
+
+/**
+ * Boots the application against a private in-memory H2 database, so every benchmark trial
+ * starts from an empty schema.
+ */
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(String... properties) {
+        // JMH calls @Setup and @Benchmark methods from different threads
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        return run(WebApplicationType.NONE, null, properties);
+    }
+
+    /**
+     * Like {@link #start(String...)}, with every statement the application executes counted by
+     * {@code statements}.
+     */
+    public static ConfigurableApplicationContext start(StatementCounter statements, String... properties) {
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        return run(WebApplicationType.NONE, statements, properties);
+    }
+
+    /**
+     * Starts the full servlet stack on a random port, read back from {@code local.server.port}.
+     */
+    public static ConfigurableApplicationContext startWebServer(String... properties) {
+        return run(WebApplicationType.SERVLET, null, properties);
+    }
+
+    private static ConfigurableApplicationContext run(WebApplicationType webApplicationType,
+                                                      StatementCounter statements, String... properties) {
+        // devtools is on the test classpath; its restart classloader only adds noise here
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(ShoeAppApplication.class);
+        if (statements != null) {
+            builder.initializers(context -> context.getBeanFactory().addBeanPostProcessor(statements));
+        }
+        return builder
+                .web(webApplicationType)
+                .logStartupInfo(false)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "app.jwt.secret=" + UUID.randomUUID() + UUID.randomUUID() + UUID.randomUUID(),
+                        "app.jwt.expiration=3600000",
+                        "app.images.dir=target/jmh-images",
+                        "server.port=0")
+                .properties(properties)
+                .run();
+    }
+}
@@ -0,0 +1,122 @@
+package com.shoeapp.benchmark;
+
+import com.shoeapp.entity.CartItem;
+import com.shoeapp.entity.Order;
+import com.shoeapp.entity.OrderLine;
+import com.shoeapp.entity.Shoe;
+import com.shoeapp.entity.User;
+import com.shoeapp.repository.CartItemRepository;
+import com.shoeapp.repository.OrderRepository;
+import com.shoeapp.repository.ShoeRepository;
+import com.shoeapp.repository.UserRepository;
+import com.shoeapp.security.UserPrincipal;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Seeds catalogue, cart and order rows of a given size. Values come from a fixed seed so
+ * runs of the same size are comparable across releases.
+ */
+public class BenchmarkData {
+
+    private static final String[] BRANDS = {"Nike", "Adidas", "Puma", "Asics", "New Balance", "Reebok"};
+    private static final String[] CATEGORIES = {"Running", "Basketball", "Casual", "Training", "Hiking"};
+
+    private final UserRepository userRepository;
+    private final ShoeRepository shoeRepository;
+    private final CartItemRepository cartItemRepository;
+    private final OrderRepository orderRepository;
+    private final Random random = new Random(42);
+
+    public BenchmarkData(ApplicationContext context) {
+        this.userRepository = context.getBean(UserRepository.class);
+        this.shoeRepository = context.getBean(ShoeRepository.class);
+        this.cartItemRepository = context.getBean(CartItemRepository.class);
+        this.orderRepository = context.getBean(OrderRepository.class);
+    }
+
+    public User user() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        return userRepository.save(User.builder()
+                .username("bench-" + suffix)
+                .email("bench-" + suffix + "@example.com")
+                .password("not-used")
+                .role("ROLE_USER")
+                .build());
+    }
+
+    public List<Shoe> shoes(int count) {
+        List<Shoe> shoes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            shoes.add(Shoe.builder()
+                    .name("Shoe " + i)
+                    .brand(BRANDS[random.nextInt(BRANDS.length)])
+                    .category(CATEGORIES[random.nextInt(CATEGORIES.length)])
+                    .size(String.valueOf(36 + random.nextInt(12)))
+                    .color("Black")
+                    .price(BigDecimal.valueOf(2000 + random.nextInt(20000), 2))
+                    .stock(Integer.MAX_VALUE / 2)
+                    .description("Benchmark shoe " + i)
+                    .imageUrl("https://cdn.example.com/shoes/" + i + ".jpg")
+                    .build());
+        }
+        return shoeRepository.saveAll(shoes);
+    }
+
+    public List<CartItem> cart(User user, List<Shoe> shoes, int lines) {
+        List<CartItem> items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            items.add(CartItem.builder()
+                    .user(user)
+                    .shoe(shoes.get(i % shoes.size()))
+                    .quantity(1 + random.nextInt(3))
+                    .build());
+        }
+        return cartItemRepository.saveAll(items);
+    }
+
+    public List<Long> orders(User user, List<Shoe> shoes, int orders, int itemsPerOrder) {
+        List<Long> ids = new ArrayList<>(orders);
+        for (int o = 0; o < orders; o++) {
+            Order order = Order.builder()
+                    .user(user)
+                    .orderDate(LocalDateTime.now().minusHours(o))
+                    .totalAmount(BigDecimal.ZERO)
+                    .status("PENDING")
+                    .build();
+            List<OrderLine> lines = new ArrayList<>(itemsPerOrder);
+            for (int i = 0; i < itemsPerOrder; i++) {
+                Shoe shoe = shoes.get(random.nextInt(shoes.size()));
+                lines.add(OrderLine.builder()
+                        .order(order)
+                        .shoeId(shoe.getId())
+                        .shoeName(shoe.getName())
+                        .shoeBrand(shoe.getBrand())
+                        .shoeSize(shoe.getSize())
+                        .shoeColor(shoe.getColor())
+                        .unitPrice(shoe.getPrice())
+                        .quantity(1 + random.nextInt(3))
+                        .imageUrl(shoe.getImageUrl())
+                        .build());
+            }
+            order.setLines(lines);
+            orderRepository.save(order);
+            ids.add(order.getId());
+        }
+        return ids;
+    }
+
+    public static void authenticate(User user) {
+        UserPrincipal principal = UserPrincipal.create(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
@@ -0,0 +1,174 @@
+package com.shoeapp.benchmark;
+
+import com.shoeapp.entity.User;
+import com.shoeapp.security.JwtTokenProvider;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Closed-loop HTTP load test comparing platform-thread and virtual-thread request handling.
+ * Boots the application once per mode, seeds a user with a cart and keeps {@code connections}
+ * authenticated requests in flight against {@code path}, then prints throughput and latency
+ * percentiles for each mode.
+ *
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="" \
+ *     -Dexec.mainClass=com.shoeapp.benchmark.LoadTest \
+ *     -Dexec.commandlineArgs="-Dconnections=5000 -Dseconds=60 -cp %classpath com.shoeapp.benchmark.LoadTest"
+ * </pre>
+ *
+ * Virtual threads need Java 21+; on older runtimes the virtual run falls back to platform threads
+ * and is labelled as such. The OS file descriptor limit must allow for twice {@code connections}.
+ */
+public final class LoadTest {
+
+    private static final int MAX_LATENCY_MS = 60_000;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int connections = Integer.getInteger("connections", 5000);
+        Duration warmup = Duration.ofSeconds(Long.getLong("warmupSeconds", 10));
+        Duration duration = Duration.ofSeconds(Long.getLong("seconds", 30));
+        String path = System.getProperty("path", "/api/cart");
+        int cartLines = Integer.getInteger("cartLines", 5);
+
+        String modes = System.getProperty("modes", "platform,virtual");
+        for (String mode : modes.split(",")) {
+            Result result = run(mode.trim(), connections, warmup, duration, path, cartLines);
+            System.out.println(result);
+        }
+        System.exit(0);
+    }
+
+    private static Result run(String mode, int connections, Duration warmup, Duration duration,
+                              String path, int cartLines) throws Exception {
+        boolean virtual = "virtual".equals(mode);
+        try (ConfigurableApplicationContext context = BenchmarkContext.startWebServer(
+                "spring.threads.virtual.enabled=" + virtual,
+                "server.tomcat.max-connections=" + Math.max(8192, connections),
+                "server.tomcat.accept-count=" + connections)) {
+
+            BenchmarkData data = new BenchmarkData(context);
+            User user = data.user();
+            data.cart(user, data.shoes(cartLines), cartLines);
+            String token = token(context, user);
+
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofMillis(MAX_LATENCY_MS))
+                    .GET()
+                    .build();
+
+            boolean virtualActive = virtual && Runtime.version().feature() >= 21;
+            String label = virtual && !virtualActive ? "virtual (unavailable, ran on platform threads)" : mode;
+
+            ExecutorService clientExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(clientExecutor)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            try {
+                Recorder recorder = new Recorder();
+                long now = System.nanoTime();
+                long measureFrom = now + warmup.toNanos();
+                long deadline = measureFrom + duration.toNanos();
+
+                CountDownLatch done = new CountDownLatch(connections);
+                for (int i = 0; i < connections; i++) {
+                    loop(client, request, recorder, measureFrom, deadline, done);
+                }
+                done.await(deadline - System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MAX_LATENCY_MS),
+                        TimeUnit.NANOSECONDS);
+
+                return recorder.result(label, connections, duration);
+            } finally {
+                clientExecutor.shutdownNow();
+            }
+        }
+    }
+
+    private static void loop(HttpClient client, HttpRequest request, Recorder recorder,
+                             long measureFrom, long deadline, CountDownLatch done) {
+        long start = System.nanoTime();
+        if (start >= deadline) {
+            done.countDown();
+            return;
+        }
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    if (start >= measureFrom) {
+                        recorder.record(System.nanoTime() - start, error == null && response.statusCode() == 200);
+                    }
+                    loop(client, request, recorder, measureFrom, deadline, done);
+                });
+    }
+
+    private static String token(ConfigurableApplicationContext context, User user) {
+        SimpleGrantedAuthority authority = new SimpleGrantedAuthority(user.getRole());
+        org.springframework.security.core.userdetails.User principal =
+                new org.springframework.security.core.userdetails.User(user.getUsername(), "not-used", List.of(authority));
+        return context.getBean(JwtTokenProvider.class)
+                .generateToken(new UsernamePasswordAuthenticationToken(principal, null, List.of(authority)));
+    }
+
+    /**
+     * Latency histogram with one-millisecond buckets.
+     */
+    private static final class Recorder {
+
+        private final AtomicLongArray histogram = new AtomicLongArray(MAX_LATENCY_MS + 1);
+        private final AtomicLong ok = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+
+        void record(long nanos, boolean success) {
+            histogram.incrementAndGet((int) Math.min(TimeUnit.NANOSECONDS.toMillis(nanos), MAX_LATENCY_MS));
+            (success ? ok : failed).incrementAndGet();
+        }
+
+        Result result(String mode, int connections, Duration duration) {
+            long total = ok.get() + failed.get();
+            return new Result(mode, connections, ok.get(), failed.get(),
+                    ok.get() / (double) duration.toSeconds(),
+                    percentile(total, 0.50), percentile(total, 0.99), percentile(total, 0.999));
+        }
+
+        private long percentile(long total, double quantile) {
+            long rank = (long) Math.ceil(total * quantile);
+            long seen = 0;
+            for (int ms = 0; ms < histogram.length(); ms++) {
+                seen += histogram.get(ms);
+                if (seen >= rank && seen > 0) {
+                    return ms;
+                }
+            }
+            return 0;
+        }
+    }
+
+    private record Result(String mode, int connections, long ok, long failed, double throughput,
+                          long p50, long p99, long p999) {
+
+        @Override
+        public String toString() {
+            return String.format("%-10s connections=%d ok=%d failed=%d throughput=%.0f req/s p50=%d ms p99=%d ms p99.9=%d ms",
+                    mode, connections, ok, failed, throughput, p50, p99, p999);
+        }
+    }
+}
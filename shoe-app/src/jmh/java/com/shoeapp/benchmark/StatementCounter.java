@@ -0,0 +1,53 @@
+package com.shoeapp.benchmark;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wraps the application's {@link DataSource} and counts statement executions, i.e. database
+ * round trips: a JDBC batch counts once however many rows it carries.
+ */
+public class StatementCounter implements BeanPostProcessor {
+
+    private final AtomicLong executions = new AtomicLong();
+
+    public long get() {
+        return executions.get();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return proxy(DataSource.class, dataSource);
+        }
+        return bean;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(Class<?> type, Object target) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getName().startsWith("execute")) {
+                executions.incrementAndGet();
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getTargetException();
+            }
+            // Connections and the statements they create are wrapped as their declared interface
+            if ((result instanceof Connection || result instanceof Statement) && method.getReturnType().isInterface()) {
+                return proxy(method.getReturnType(), result);
+            }
+            return result;
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
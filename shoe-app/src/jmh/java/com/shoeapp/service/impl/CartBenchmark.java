@@ -0,0 +1,46 @@
+package com.shoeapp.service.impl;
+
+import com.shoeapp.benchmark.BenchmarkContext;
+import com.shoeapp.benchmark.BenchmarkData;
+import com.shoeapp.entity.Shoe;
+import com.shoeapp.entity.User;
+import com.shoeapp.service.CartService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CartBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int cartLines;
+
+    private ConfigurableApplicationContext context;
+    private CartService cartService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        cartService = context.getBean(CartService.class);
+
+        BenchmarkData data = new BenchmarkData(context);
+        User user = data.user();
+        List<Shoe> shoes = data.shoes(cartLines);
+        data.cart(user, shoes, cartLines);
+        BenchmarkData.authenticate(user);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object getCart() {
+        return cartService.getCart();
+    }
+}
@@ -0,0 +1,96 @@
+package com.shoeapp.service.impl;
+
+import com.shoeapp.benchmark.BenchmarkContext;
+import com.shoeapp.benchmark.BenchmarkData;
+import com.shoeapp.benchmark.StatementCounter;
+import com.shoeapp.dto.request.OrderRequest;
+import com.shoeapp.entity.Shoe;
+import com.shoeapp.entity.User;
+import com.shoeapp.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full checkout against embedded H2: stock reservation, the order and its line snapshots, the
+ * cart row deletes and the outbox event the statistics rollup later consumes. The cart is
+ * refilled before every invocation, outside the measurement.
+ * <p>
+ * Statements executed per checkout are printed at the end of each trial; {@code batchSize=0}
+ * turns Hibernate's JDBC batching off for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CreateOrderBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int cartLines;
+
+    @Param({"0", "50"})
+    private int batchSize;
+
+    private final StatementCounter statements = new StatementCounter();
+    private long statementsBefore;
+    private long checkoutStatements;
+    private long checkouts;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private BenchmarkData data;
+    private User user;
+    private List<Shoe> shoes;
+    private OrderRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(statements,
+                "app.jpa.batch-size=" + batchSize,
+                "app.cart.flush-interval-ms=3600000");
+        orderService = context.getBean(OrderService.class);
+
+        data = new BenchmarkData(context);
+        user = data.user();
+        shoes = data.shoes(Math.max(cartLines, 10));
+        BenchmarkData.authenticate(user);
+
+        request = OrderRequest.builder()
+                .firstName("Bench")
+                .lastName("Mark")
+                .address("1 Main Street")
+                .city("Springfield")
+                .state("IL")
+                .zipCode("62701")
+                .country("US")
+                .phoneNumber("555 0100")
+                .paymentMethod("CREDIT_CARD")
+                .shippingMethod("STANDARD")
+                .build();
+    }
+
+    @Setup(Level.Invocation)
+    public void fillCart() {
+        data.cart(user, shoes, cartLines);
+        statementsBefore = statements.get();
+    }
+
+    @TearDown(Level.Invocation)
+    public void countStatements() {
+        checkoutStatements += statements.get() - statementsBefore;
+        checkouts++;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%nStatements per checkout (%d lines, batch size %d): %.1f%n",
+                cartLines, batchSize, (double) checkoutStatements / checkouts);
+        context.close();
+    }
+
+    @Benchmark
+    public Object createOrder() {
+        return orderService.createOrder(request, user);
+    }
+}
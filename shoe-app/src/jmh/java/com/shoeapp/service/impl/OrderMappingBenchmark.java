@@ -0,0 +1,63 @@
+package com.shoeapp.service.impl;
+
+import com.shoeapp.benchmark.BenchmarkContext;
+import com.shoeapp.benchmark.BenchmarkData;
+import com.shoeapp.entity.Order;
+import com.shoeapp.entity.Shoe;
+import com.shoeapp.entity.User;
+import com.shoeapp.repository.OrderRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.util.AopTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderMappingBenchmark {
+
+    @Param({"10", "100"})
+    private int orders;
+
+    @Param({"1", "10"})
+    private int itemsPerOrder;
+
+    private ConfigurableApplicationContext context;
+    private OrderServiceImpl orderService;
+    private List<Order> history;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        orderService = AopTestUtils.getTargetObject(context.getBean(OrderServiceImpl.class));
+
+        BenchmarkData data = new BenchmarkData(context);
+        User user = data.user();
+        List<Shoe> shoes = data.shoes(50);
+        data.orders(user, shoes, orders, itemsPerOrder);
+
+        // Loaded once with their lines, so the benchmark measures mapping only
+        history = context.getBean(OrderRepository.class).findHistoryByUserId(user.getId());
+        BenchmarkData.authenticate(user);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void mapToOrderResponse(Blackhole blackhole) {
+        for (Order order : history) {
+            blackhole.consume(orderService.mapToOrderResponse(order));
+        }
+    }
+
+    @Benchmark
+    public Object getUserOrders() {
+        return orderService.getUserOrders();
+    }
+}
@@ -0,0 +1,49 @@
+package com.shoeapp.service.impl;
+
+import com.shoeapp.benchmark.BenchmarkContext;
+import com.shoeapp.benchmark.BenchmarkData;
+import com.shoeapp.entity.Shoe;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.util.AopTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ShoeMappingBenchmark {
+
+    @Param({"100", "1000"})
+    private int shoes;
+
+    private ConfigurableApplicationContext context;
+    private ShoeServiceImpl shoeService;
+    private List<Shoe> catalogue;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        shoeService = AopTestUtils.getTargetObject(context.getBean(ShoeServiceImpl.class));
+        catalogue = new BenchmarkData(context).shoes(shoes);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void mapToShoeResponse(Blackhole blackhole) {
+        for (Shoe shoe : catalogue) {
+            blackhole.consume(shoeService.mapToShoeResponse(shoe));
+        }
+    }
+
+    @Benchmark
+    public Object getAllShoes() {
+        return shoeService.getAllShoes();
+    }
+}
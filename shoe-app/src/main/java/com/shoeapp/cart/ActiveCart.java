@@ -0,0 +1,132 @@
+package com.shoeapp.cart;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * One user's open cart as held by {@link CartStore}: at most one line per shoe, plus the row ids
+ * that still have to be deleted from cart_items. Not thread-safe; only touched under the user's
+ * stripe lock.
+ */
+public class ActiveCart {
+
+    private final Map<Long, Line> lines = new LinkedHashMap<>();
+    private final List<Long> deletedRowIds = new ArrayList<>();
+    private boolean dirty;
+    private long lastAccess = System.nanoTime();
+
+    public List<CartLine> getLines() {
+        List<CartLine> result = new ArrayList<>(lines.size());
+        lines.values().forEach(line -> result.add(line.toCartLine()));
+        return result;
+    }
+
+    public Optional<CartLine> findLine(Long itemId) {
+        if (itemId == null) {
+            return Optional.empty();
+        }
+        if (itemId < 0) {
+            return Optional.ofNullable(lines.get(-itemId)).map(Line::toCartLine);
+        }
+        return lines.values().stream()
+                .filter(line -> itemId.equals(line.rowId))
+                .findFirst()
+                .map(Line::toCartLine);
+    }
+
+    public int getQuantity(Long shoeId) {
+        Line line = lines.get(shoeId);
+        return line == null ? 0 : line.quantity;
+    }
+
+    public CartLine add(Long shoeId, int quantity) {
+        Line line = lines.computeIfAbsent(shoeId, id -> new Line(id, null, 0));
+        line.quantity += quantity;
+        line.dirty = true;
+        dirty = true;
+        return line.toCartLine();
+    }
+
+    public CartLine setQuantity(Long shoeId, int quantity) {
+        Line line = lines.get(shoeId);
+        line.quantity = quantity;
+        line.dirty = true;
+        dirty = true;
+        return line.toCartLine();
+    }
+
+    public void remove(Long shoeId) {
+        Line line = lines.remove(shoeId);
+        if (line != null) {
+            if (line.rowId != null) {
+                deletedRowIds.add(line.rowId);
+            }
+            dirty = true;
+        }
+    }
+
+    public void clear() {
+        for (Long shoeId : new ArrayList<>(lines.keySet())) {
+            remove(shoeId);
+        }
+    }
+
+    boolean isDirty() {
+        return dirty;
+    }
+
+    void touch() {
+        lastAccess = System.nanoTime();
+    }
+
+    long getLastAccess() {
+        return lastAccess;
+    }
+
+    void addPersistedLine(Long rowId, Long shoeId, int quantity) {
+        Line existing = lines.get(shoeId);
+        if (existing == null) {
+            lines.put(shoeId, new Line(shoeId, rowId, quantity));
+        } else {
+            // Duplicate rows for one shoe (written before carts were merged per shoe) fold into one line
+            existing.quantity += quantity;
+            existing.dirty = true;
+            deletedRowIds.add(rowId);
+            dirty = true;
+        }
+    }
+
+    List<Long> getDeletedRowIds() {
+        return deletedRowIds;
+    }
+
+    List<Line> getDirtyLines() {
+        return lines.values().stream().filter(line -> line.dirty).toList();
+    }
+
+    void markClean() {
+        deletedRowIds.clear();
+        lines.values().forEach(line -> line.dirty = false);
+        dirty = false;
+    }
+
+    static final class Line {
+        final Long shoeId;
+        Long rowId;
+        int quantity;
+        boolean dirty;
+
+        Line(Long shoeId, Long rowId, int quantity) {
+            this.shoeId = shoeId;
+            this.rowId = rowId;
+            this.quantity = quantity;
+        }
+
+        CartLine toCartLine() {
+            return new CartLine(rowId != null ? rowId : -shoeId, shoeId, quantity);
+        }
+    }
+}
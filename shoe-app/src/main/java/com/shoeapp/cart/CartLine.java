@@ -0,0 +1,8 @@
+package com.shoeapp.cart;
+
+/**
+ * Read-only view of one cart line. {@code id} is the cart_items row id once the line has been
+ * flushed, and {@code -shoeId} until then; both forms are accepted wherever an item id is expected.
+ */
+public record CartLine(Long id, Long shoeId, int quantity) {
+}
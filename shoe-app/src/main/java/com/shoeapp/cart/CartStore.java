@@ -0,0 +1,331 @@
+package com.shoeapp.cart;
+
+import com.shoeapp.entity.CartItem;
+import com.shoeapp.event.ShoeChangedEvent;
+import com.shoeapp.repository.CartItemRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Holds open carts in memory, keyed by user id, and writes changes behind to cart_items.
+ * <p>
+ * Each user maps to one of a fixed set of stripe locks; every read and mutation of a cart runs
+ * under its stripe, so carts of different users rarely contend. Mutations only mark the cart dirty.
+ * A scheduled flush then writes dirty carts stripe by stripe, as JDBC batches in one transaction
+ * per stripe; if that fails, each cart of the stripe is retried in its own transaction, so one
+ * bad row only holds back its own cart. Lines for a deleted shoe are dropped once the delete
+ * commits. New rows take their ids from the same pooled sequence as {@link CartItem}, so ids
+ * are known before the insert. A cart that isn't in memory is rehydrated from cart_items on first access, and idle
+ * clean carts are dropped again. Checkout flushes the user's cart synchronously and keeps the stripe
+ * locked until the order is placed.
+ */
+@Component
+@Slf4j
+public class CartStore {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO cart_items (id, user_id, shoe_id, quantity, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL =
+            "UPDATE cart_items SET quantity = ?, updated_at = ? WHERE id = ? AND order_id IS NULL";
+    private static final String DELETE_SQL =
+            "DELETE FROM cart_items WHERE id = ? AND order_id IS NULL";
+
+    private final CartItemRepository cartItemRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SessionFactoryImplementor sessionFactory;
+
+    private final Map<Long, ActiveCart> carts = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyUsers = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock[] stripes;
+
+    @Value("${app.cart.idle-timeout:30m}")
+    private Duration idleTimeout = Duration.ofMinutes(30);
+
+    public CartStore(CartItemRepository cartItemRepository, JdbcTemplate jdbcTemplate,
+                     TransactionTemplate transactionTemplate, EntityManagerFactory entityManagerFactory,
+                     @Value("${app.cart.lock-stripes:256}") int stripeCount) {
+        this.cartItemRepository = cartItemRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Runs {@code action} against the user's cart under its stripe lock. The result must not
+     * hold on to the cart itself.
+     */
+    public <T> T read(Long userId, Function<ActiveCart, T> action) {
+        ReentrantLock lock = stripe(userId);
+        lock.lock();
+        try {
+            return action.apply(load(userId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Like {@link #read}, and queues the cart for the next flush if {@code action} changed it.
+     */
+    public <T> T update(Long userId, Function<ActiveCart, T> action) {
+        ReentrantLock lock = stripe(userId);
+        lock.lock();
+        try {
+            ActiveCart cart = load(userId);
+            T result = action.apply(cart);
+            if (cart.isDirty()) {
+                dirtyUsers.add(userId);
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes the user's cart, then runs {@code placeOrder} with the stripe still locked, so the
+     * lines the order reads from cart_items can't change underneath it. Placing the order deletes
+     * those rows and the in-memory cart is dropped; if it fails the cart stays as is.
+     */
+    public <T> T checkout(Long userId, Supplier<T> placeOrder) {
+        ReentrantLock lock = stripe(userId);
+        lock.lock();
+        try {
+            ActiveCart cart = carts.get(userId);
+            if (cart != null && cart.isDirty()) {
+                writeInTransaction(Map.of(userId, cart));
+                dirtyUsers.remove(userId);
+            }
+
+            T result = placeOrder.get();
+
+            carts.remove(userId);
+            dirtyUsers.remove(userId);
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cart.flush-interval-ms:1000}")
+    public void flushDirty() {
+        if (dirtyUsers.isEmpty()) {
+            evictIdle();
+            return;
+        }
+
+        Map<Integer, List<Long>> usersByStripe = new TreeMap<>();
+        for (Iterator<Long> it = dirtyUsers.iterator(); it.hasNext(); ) {
+            Long userId = it.next();
+            it.remove();
+            usersByStripe.computeIfAbsent(stripeIndex(userId), i -> new ArrayList<>()).add(userId);
+        }
+
+        usersByStripe.forEach(this::flushStripe);
+        evictIdle();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushDirty();
+        if (!dirtyUsers.isEmpty()) {
+            log.warn("{} carts could not be written to the database on shutdown", dirtyUsers.size());
+        }
+    }
+
+    // After commit, so a rolled-back delete leaves carts alone; the shoe's persisted rows went with it
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onShoeChanged(ShoeChangedEvent event) {
+        if (!event.isDeleted()) {
+            return;
+        }
+        for (Long userId : carts.keySet()) {
+            ReentrantLock lock = stripe(userId);
+            lock.lock();
+            try {
+                ActiveCart cart = carts.get(userId);
+                if (cart != null && cart.getQuantity(event.shoeId()) > 0) {
+                    cart.remove(event.shoeId());
+                    dirtyUsers.add(userId);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    public int size() {
+        return carts.size();
+    }
+
+    private void flushStripe(int stripeIndex, List<Long> userIds) {
+        ReentrantLock lock = stripes[stripeIndex];
+        lock.lock();
+        try {
+            Map<Long, ActiveCart> dirty = new LinkedHashMap<>();
+            for (Long userId : userIds) {
+                ActiveCart cart = carts.get(userId);
+                if (cart != null && cart.isDirty()) {
+                    dirty.put(userId, cart);
+                }
+            }
+            if (dirty.isEmpty()) {
+                return;
+            }
+
+            if (dirty.size() == 1) {
+                dirty.forEach(this::flushCart);
+                return;
+            }
+            try {
+                writeInTransaction(dirty);
+            } catch (RuntimeException ex) {
+                log.debug("Could not flush {} carts in one batch, writing them one at a time", dirty.size(), ex);
+                dirty.forEach(this::flushCart);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caller holds the user's stripe lock
+    private void flushCart(Long userId, ActiveCart cart) {
+        try {
+            writeInTransaction(Map.of(userId, cart));
+        } catch (RuntimeException ex) {
+            // Nothing was marked clean, so the next flush retries the same changes
+            log.error("Could not flush the cart of user {}, will retry: {}",
+                    userId, NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+            dirtyUsers.add(userId);
+        }
+    }
+
+    // Caller holds the stripe lock of every cart passed in
+    private void writeInTransaction(Map<Long, ActiveCart> dirty) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> deletes = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        List<ActiveCart.Line> insertedLines = new ArrayList<>();
+
+        dirty.forEach((userId, cart) -> {
+            cart.getDeletedRowIds().forEach(rowId -> deletes.add(new Object[]{rowId}));
+            for (ActiveCart.Line line : cart.getDirtyLines()) {
+                if (line.rowId == null) {
+                    inserts.add(new Object[]{null, userId, line.shoeId, line.quantity, now, now});
+                    insertedLines.add(line);
+                } else {
+                    updates.add(new Object[]{line.quantity, now, line.rowId});
+                }
+            }
+        });
+
+        List<Long> insertedIds = inserts.isEmpty() ? List.of() : allocateIds(inserts.size());
+        for (int i = 0; i < inserts.size(); i++) {
+            inserts.get(i)[0] = insertedIds.get(i);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!deletes.isEmpty()) {
+                jdbcTemplate.batchUpdate(DELETE_SQL, deletes);
+            }
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+            }
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+            }
+        });
+
+        // Committed: record the new row ids so later changes become UPDATEs and DELETEs
+        for (int i = 0; i < insertedLines.size(); i++) {
+            insertedLines.get(i).rowId = insertedIds.get(i);
+        }
+        dirty.values().forEach(ActiveCart::markClean);
+    }
+
+    private void evictIdle() {
+        long cutoff = System.nanoTime() - idleTimeout.toNanos();
+        for (Map.Entry<Long, ActiveCart> entry : carts.entrySet()) {
+            if (entry.getValue().getLastAccess() - cutoff >= 0) {
+                continue;
+            }
+            ReentrantLock lock = stripe(entry.getKey());
+            lock.lock();
+            try {
+                ActiveCart cart = carts.get(entry.getKey());
+                if (cart != null && !cart.isDirty() && cart.getLastAccess() - cutoff < 0) {
+                    carts.remove(entry.getKey());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Caller holds the user's stripe lock
+    private ActiveCart load(Long userId) {
+        ActiveCart cart = carts.get(userId);
+        if (cart == null) {
+            cart = new ActiveCart();
+            for (CartItemRepository.OpenCartLine line : cartItemRepository.findOpenCartLines(userId)) {
+                cart.addPersistedLine(line.getId(), line.getShoeId(), line.getQuantity());
+            }
+            carts.put(userId, cart);
+            if (cart.isDirty()) {
+                dirtyUsers.add(userId);
+            }
+        }
+        cart.touch();
+        return cart;
+    }
+
+    private ReentrantLock stripe(Long userId) {
+        return stripes[stripeIndex(userId)];
+    }
+
+    private int stripeIndex(Long userId) {
+        return Math.floorMod(Long.hashCode(userId) * 0x9E3779B9, stripes.length);
+    }
+
+    // Only reaches the database once per block of ids, through its own short-lived session
+    private List<Long> allocateIds(int count) {
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor(CartItem.class).getGenerator();
+        List<Long> ids = new ArrayList<>(count);
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            for (int i = 0; i < count; i++) {
+                ids.add((Long) generator.generate((SharedSessionContractImplementor) session, null, null, EventType.INSERT));
+            }
+        }
+        return ids;
+    }
+}
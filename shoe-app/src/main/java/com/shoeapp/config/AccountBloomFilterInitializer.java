@@ -0,0 +1,51 @@
+package com.shoeapp.config;
+
+import com.shoeapp.repository.UserRepository;
+import com.shoeapp.security.AccountBloomFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Loads every existing username and email into the account filter at startup, walking the users
+ * table by id in batches and reading only those columns. Signups made meanwhile add themselves.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AccountBloomFilterInitializer implements CommandLineRunner {
+
+    private final UserRepository userRepository;
+    private final AccountBloomFilter accountBloomFilter;
+
+    @Value("${app.auth.availability.load-batch-size:1000}")
+    private int batchSize;
+
+    @Override
+    public void run(String... args) {
+        long start = System.currentTimeMillis();
+        long count = 0;
+        List<UserRepository.AccountKeys> accounts = userRepository.findAccountKeysAfter(0L, PageRequest.of(0, batchSize));
+
+        while (!accounts.isEmpty()) {
+            for (UserRepository.AccountKeys account : accounts) {
+                accountBloomFilter.add(account.getUsername(), account.getEmail());
+            }
+            count += accounts.size();
+            Long lastId = accounts.get(accounts.size() - 1).getId();
+            accounts = userRepository.findAccountKeysAfter(lastId, PageRequest.of(0, batchSize));
+        }
+        accountBloomFilter.markLoaded();
+
+        log.info("Loaded {} accounts into the availability filter in {} ms", count, System.currentTimeMillis() - start);
+        if (count > accountBloomFilter.getExpectedAccounts() / 2) {
+            log.warn("{} accounts is over half of app.auth.availability.expected-accounts ({}); raise it to keep "
+                    + "availability checks off the database", count, accountBloomFilter.getExpectedAccounts());
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.shoeapp.config;
 
 import com.shoeapp.entity.User;
 import com.shoeapp.repository.UserRepository;
+import com.shoeapp.security.AccountBloomFilter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -16,6 +17,7 @@ public class AdminInitializer implements CommandLineRunner {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final AccountBloomFilter accountBloomFilter;
 
     @Value("${app.admin.username:admin}")
     private String adminUsername;
@@ -39,6 +41,7 @@ public class AdminInitializer implements CommandLineRunner {
                     .build();
 
             userRepository.save(admin);
+            accountBloomFilter.add(admin.getUsername(), admin.getEmail());
             log.info("Admin user initialized with username: {}", adminUsername);
         }
     }
@@ -0,0 +1,34 @@
+package com.shoeapp.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.security.task.DelegatingSecurityContextAsyncTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Runs {@code @Async} methods on Boot's application task executor. With
+ * {@code spring.threads.virtual.enabled=true} (Java 21+) that executor, like Tomcat's request
+ * handling, hands out a new virtual thread per task instead of a bounded platform pool.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig implements AsyncConfigurer {
+
+    private final AsyncTaskExecutor applicationTaskExecutor;
+
+    public AsyncConfig(@Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                       AsyncTaskExecutor applicationTaskExecutor) {
+        this.applicationTaskExecutor = applicationTaskExecutor;
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        // The security context is thread-bound, so carry the caller's over to the task's thread
+        return new DelegatingSecurityContextAsyncTaskExecutor(applicationTaskExecutor);
+    }
+}
@@ -0,0 +1,33 @@
+package com.shoeapp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String SHOES = "shoes";
+    public static final String SHOES_BY_BRAND = "shoesByBrand";
+    public static final String SHOES_BY_CATEGORY = "shoesByCategory";
+
+    // recordStats keeps hit, miss and eviction counters for every cache
+    @Value("${app.cache.shoes.spec:maximumSize=10000,expireAfterWrite=10m,recordStats}")
+    private String shoesCacheSpec;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(SHOES, SHOES_BY_BRAND, SHOES_BY_CATEGORY);
+        cacheManager.setCacheSpecification(shoesCacheSpec);
+        cacheManager.setAllowNullValues(false);
+
+        // Evictions issued inside a transaction are applied after commit, so a reader can't
+        // repopulate an entry from the old row while the admin's write is still in flight
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
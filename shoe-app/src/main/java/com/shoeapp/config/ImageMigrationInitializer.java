@@ -0,0 +1,73 @@
+package com.shoeapp.config;
+
+import com.shoeapp.entity.Shoe;
+import com.shoeapp.repository.ShoeRepository;
+import com.shoeapp.service.ImageService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * One-shot migration that moves inline data URI images out of shoes.image_url into the image store.
+ * Rows that were already migrated no longer match, so running it on every startup is a cheap no-op.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ImageMigrationInitializer implements CommandLineRunner {
+
+    private final ShoeRepository shoeRepository;
+    private final ImageService imageService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.images.migrate-inline:true}")
+    private boolean enabled;
+
+    @Value("${app.images.migrate-batch-size:50}")
+    private int batchSize;
+
+    @Override
+    public void run(String... args) {
+        if (!enabled) {
+            return;
+        }
+
+        long afterId = 0L;
+        int migrated = 0;
+        int failed = 0;
+        List<Long> ids;
+
+        while (!(ids = shoeRepository.findIdsWithInlineImage(afterId, PageRequest.of(0, batchSize))).isEmpty()) {
+            for (Long id : ids) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> migrate(id));
+                    migrated++;
+                } catch (RuntimeException ex) {
+                    // Leave the row untouched so it can be fixed by hand; the id cursor skips past it
+                    log.warn("Could not migrate inline image for shoe id: {}: {}", id, ex.getMessage());
+                    failed++;
+                }
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+
+        if (migrated > 0 || failed > 0) {
+            log.info("Migrated {} inline shoe images to the image store, {} failed", migrated, failed);
+        }
+    }
+
+    private void migrate(Long id) {
+        Shoe shoe = shoeRepository.findById(id).orElse(null);
+        if (shoe == null || shoe.getImageUrl() == null || !shoe.getImageUrl().startsWith("data:")) {
+            return;
+        }
+        shoe.setImageKey(imageService.storeDataUri(shoe.getImageUrl()));
+        shoe.setImageUrl(null);
+    }
+}
@@ -0,0 +1,17 @@
+package com.shoeapp.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.shoeapp.web.ShoeJsonCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    // Shoes are written from their cached JSON wherever the application's ObjectMapper is used
+    @Bean
+    public Module shoeJsonCacheModule(ShoeJsonCache shoeJsonCache) {
+        return new SimpleModule("shoe-json-cache").setSerializerModifier(shoeJsonCache);
+    }
+}
@@ -0,0 +1,38 @@
+package com.shoeapp.config;
+
+import com.shoeapp.web.RequestStatementCounter;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * JDBC batching for Hibernate writes. Entity ids come from pooled-lo sequences, so inserts can be
+ * batched as well as updates; ordering groups statements for the same table into one batch.
+ * Statements are also counted per request for the metrics. Anything set explicitly under
+ * spring.jpa.properties takes precedence.
+ */
+@Configuration
+public class JpaConfig {
+
+    @Value("${app.jpa.batch-size:50}")
+    private int batchSize;
+
+    @Bean
+    public HibernatePropertiesCustomizer batchingCustomizer() {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, batchSize);
+            properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, true);
+            properties.putIfAbsent(AvailableSettings.ORDER_UPDATES, true);
+            properties.putIfAbsent(AvailableSettings.PREFERRED_POOLED_OPTIMIZER,
+                    StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        };
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCountingCustomizer() {
+        return properties -> properties.putIfAbsent(AvailableSettings.STATEMENT_INSPECTOR, new RequestStatementCounter());
+    }
+}
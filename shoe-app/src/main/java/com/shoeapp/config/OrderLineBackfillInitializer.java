@@ -0,0 +1,76 @@
+package com.shoeapp.config;
+
+import com.shoeapp.entity.CartItem;
+import com.shoeapp.entity.OrderLine;
+import com.shoeapp.entity.Shoe;
+import com.shoeapp.repository.CartItemRepository;
+import com.shoeapp.repository.OrderLineRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * One-shot migration for orders placed while their lines were the cart_items rows themselves.
+ * Each such row becomes an order line and is then deleted. Prices were never recorded, so the
+ * lines get the shoe's current price, which is what order history showed until now. Once done
+ * nothing matches, so running it on every startup is a cheap no-op. It runs once every bean is
+ * ready, including the id sequences, and before the web server starts taking orders.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderLineBackfillInitializer implements SmartInitializingSingleton {
+
+    private final CartItemRepository cartItemRepository;
+    private final OrderLineRepository orderLineRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.orders.backfill-batch-size:500}")
+    private int batchSize;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        backfill();
+    }
+
+    public void backfill() {
+        long backfilled = 0;
+        int batch;
+        while ((batch = transactionTemplate.execute(status -> backfillBatch())) > 0) {
+            backfilled += batch;
+        }
+
+        if (backfilled > 0) {
+            log.info("Moved {} ordered cart items into order lines", backfilled);
+        }
+    }
+
+    private int backfillBatch() {
+        List<CartItem> items = cartItemRepository.findOrderedItems(PageRequest.of(0, batchSize));
+        orderLineRepository.saveAll(items.stream().map(OrderLineBackfillInitializer::toLine).toList());
+        cartItemRepository.deleteAll(items);
+        return items.size();
+    }
+
+    private static OrderLine toLine(CartItem item) {
+        Shoe shoe = item.getShoe();
+        return OrderLine.builder()
+                .order(item.getOrder())
+                .shoeId(shoe.getId())
+                .shoeName(shoe.getName())
+                .shoeBrand(shoe.getBrand())
+                .shoeSize(shoe.getSize())
+                .shoeColor(shoe.getColor())
+                .unitPrice(shoe.getPrice())
+                .quantity(item.getQuantity())
+                .imageKey(shoe.getImageKey())
+                .imageUrl(shoe.getImageUrl())
+                .build();
+    }
+}
@@ -0,0 +1,22 @@
+package com.shoeapp.config;
+
+import com.shoeapp.service.OrderStatisticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backfills the order statistics rollup from existing orders the first time the application
+ * starts with an empty rollup table.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderStatisticsInitializer implements CommandLineRunner {
+
+    private final OrderStatisticsService orderStatisticsService;
+
+    @Override
+    public void run(String... args) {
+        orderStatisticsService.rebuildIfEmpty();
+    }
+}
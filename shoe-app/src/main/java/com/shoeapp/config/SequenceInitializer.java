@@ -0,0 +1,71 @@
+package com.shoeapp.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves each id sequence past the highest id already in its table. Rows written while the ids were
+ * identity columns would otherwise collide with the first ids handed out from a fresh sequence.
+ * Runs while the context is being built, once the schema exists but before the web server, the
+ * scheduled jobs and the other initializers can insert anything. The sequences are only read, so
+ * a restart that finds them already ahead leaves them untouched.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SequenceInitializer {
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "users", "users_seq",
+            "shoes", "shoes_seq",
+            "orders", "orders_seq",
+            "cart_items", "cart_items_seq",
+            "order_lines", "order_lines_seq");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void restartSequences() {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        String nextValueQuery = nextValueQuery(dialect);
+        if (nextValueQuery == null) {
+            log.warn("Cannot read sequences on {}, leaving them as they are", dialect.getClass().getSimpleName());
+            return;
+        }
+
+        SEQUENCES.forEach((table, sequence) -> {
+            Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+            if (maxId == null) {
+                return;
+            }
+            List<Long> next = jdbcTemplate.queryForList(nextValueQuery, Long.class, sequence);
+            if (!next.isEmpty() && next.get(0) <= maxId) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + 1));
+                log.info("Restarted sequence {} after existing id {}", sequence, maxId);
+            }
+        });
+    }
+
+    // The value the next nextval will return, read from the catalog so that no block is used up
+    private static String nextValueQuery(Dialect dialect) {
+        if (dialect instanceof H2Dialect) {
+            return "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE LOWER(SEQUENCE_NAME) = ?";
+        }
+        if (dialect instanceof PostgreSQLDialect) {
+            return "SELECT COALESCE(last_value + increment_by, start_value) FROM pg_sequences WHERE sequencename = ?";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,43 @@
+package com.shoeapp.config;
+
+import com.shoeapp.entity.Shoe;
+import com.shoeapp.repository.ShoeRepository;
+import com.shoeapp.search.ShoeSearchIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Loads the catalogue into the search index at startup, walking the shoes table by id in batches.
+ * Later changes reach the index through {@link com.shoeapp.event.ShoeChangedEvent}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ShoeSearchIndexInitializer implements CommandLineRunner {
+
+    private final ShoeRepository shoeRepository;
+    private final ShoeSearchIndex shoeSearchIndex;
+
+    @Value("${app.search.index-batch-size:500}")
+    private int batchSize;
+
+    @Override
+    public void run(String... args) {
+        long start = System.currentTimeMillis();
+        List<Shoe> shoes = shoeRepository.findAllByOrderByIdAsc(PageRequest.of(0, batchSize));
+
+        while (!shoes.isEmpty()) {
+            shoes.forEach(shoeSearchIndex::index);
+            Long lastId = shoes.get(shoes.size() - 1).getId();
+            shoes = shoeRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, batchSize));
+        }
+
+        log.info("Indexed {} shoes for search in {} ms", shoeSearchIndex.size(), System.currentTimeMillis() - start);
+    }
+}
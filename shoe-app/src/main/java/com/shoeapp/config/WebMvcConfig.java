@@ -0,0 +1,22 @@
+package com.shoeapp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    // Streamed responses such as the order export run as async requests, which the servlet
+    // container would otherwise cut off after its default of 30 seconds
+    @Value("${app.mvc.async-timeout:1h}")
+    private Duration asyncTimeout;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(asyncTimeout.toMillis());
+    }
+}
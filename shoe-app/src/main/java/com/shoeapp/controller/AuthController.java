@@ -2,6 +2,7 @@ package com.shoeapp.controller;
 
 import com.shoeapp.dto.request.LoginRequest;
 import com.shoeapp.dto.request.SignupRequest;
+import com.shoeapp.dto.response.AvailabilityResponse;
 import com.shoeapp.dto.response.JwtResponse;
 import com.shoeapp.dto.response.SignupResponse;
 import com.shoeapp.service.AuthService;
@@ -10,9 +11,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -37,6 +40,12 @@ public class AuthController {
         return ResponseEntity.ok(signupResponse);
     }
 
+    @GetMapping("/check-availability")
+    public ResponseEntity<AvailabilityResponse> checkAvailability(@RequestParam(required = false) String username,
+                                                                  @RequestParam(required = false) String email) {
+        return ResponseEntity.ok(authService.checkAvailability(username, email));
+    }
+
     @PostMapping("/create-admin")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<SignupResponse> createAdmin(@Valid @RequestBody SignupRequest signupRequest) {
@@ -3,20 +3,23 @@ package com.shoeapp.controller;
 import com.shoeapp.dto.request.OrderRequest;
 import com.shoeapp.dto.response.OrderResponse;
 import com.shoeapp.entity.User;
-import com.shoeapp.exception.ResourceNotFoundException;
-import com.shoeapp.repository.UserRepository;
+import com.shoeapp.security.CurrentUserResolver;
+import com.shoeapp.service.OrderExportService;
 import com.shoeapp.service.OrderService;
+import com.shoeapp.service.OrderStatisticsService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -25,7 +28,9 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
-    private final UserRepository userRepository;
+    private final OrderStatisticsService orderStatisticsService;
+    private final OrderExportService orderExportService;
+    private final CurrentUserResolver currentUserResolver;
 
     @GetMapping
     public ResponseEntity<List<OrderResponse>> getUserOrders() {
@@ -52,10 +57,7 @@ public class OrderController {
     public ResponseEntity<OrderResponse> createOrder(@Valid @RequestBody OrderRequest orderRequest) {
         log.info("Creating new order");
 
-        UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        User user = userRepository.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", userDetails.getUsername()));
-
+        User user = currentUserResolver.getCurrentUser();
         OrderResponse createdOrder = orderService.createOrder(orderRequest, user);
         return new ResponseEntity<>(createdOrder, HttpStatus.CREATED);
     }
@@ -110,4 +112,42 @@ public class OrderController {
         log.info("Fetching order statistics with timeframe: {}", timeframe);
         return ResponseEntity.ok(orderService.getOrderStatistics(timeframe));
     }
+
+    @PostMapping("/statistics/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> rebuildOrderStatistics() {
+        log.info("Rebuilding order statistics rollup");
+        orderStatisticsService.rebuild();
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        OrderExportService.Format exportFormat = OrderExportService.Format.from(format);
+        log.info("Exporting orders as {}{}", exportFormat, gzip ? " (gzip)" : "");
+
+        // Written from an async thread while the rows are read, so the body is never held in memory
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024);
+                orderExportService.exportOrders(exportFormat, gzipOut);
+                gzipOut.finish();
+            } else {
+                orderExportService.exportOrders(exportFormat, out);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("orders." + exportFormat.getExtension())
+                        .build().toString());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
 }
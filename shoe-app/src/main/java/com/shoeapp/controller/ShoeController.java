@@ -1,19 +1,30 @@
 package com.shoeapp.controller;
 
 import com.shoeapp.dto.request.ShoeRequest;
+import com.shoeapp.dto.request.ShoeSearchRequest;
+import com.shoeapp.dto.response.ShoeImportJobResponse;
+import com.shoeapp.dto.response.ShoePageResponse;
 import com.shoeapp.dto.response.ShoeResponse;
+import com.shoeapp.dto.response.ShoeSearchResponse;
+import com.shoeapp.dto.response.ShoeSummaryResponse;
 import com.shoeapp.service.ImageService;
+import com.shoeapp.service.ShoeImportService;
 import com.shoeapp.service.ShoeService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.util.List;
 
 @RestController
@@ -24,6 +35,7 @@ public class ShoeController {
 
     private final ShoeService shoeService;
     private final ImageService imageService;
+    private final ShoeImportService shoeImportService;
 
     @GetMapping
     public ResponseEntity<List<ShoeResponse>> getAllShoes() {
@@ -32,6 +44,23 @@ public class ShoeController {
         return ResponseEntity.ok(shoes);
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<ShoePageResponse> getShoesPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false, defaultValue = "id") String sort) {
+        log.info("Fetching shoes page sorted by {} with size: {}", sort, size);
+        ShoePageResponse page = shoeService.getShoesPage(cursor, size, sort);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<ShoeSearchResponse> searchShoes(@ModelAttribute ShoeSearchRequest searchRequest) {
+        log.info("Searching shoes with query: {}", searchRequest.getQ());
+        ShoeSearchResponse results = shoeService.searchShoes(searchRequest);
+        return ResponseEntity.ok(results);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ShoeResponse> getShoeById(@PathVariable Long id) {
         log.info("Fetching shoe with id: {}", id);
@@ -53,6 +82,28 @@ public class ShoeController {
         return ResponseEntity.ok(shoes);
     }
 
+    // Slim listings for catalogue pages: no description or timestamps, and a stock flag
+    @GetMapping("/summary")
+    public ResponseEntity<List<ShoeSummaryResponse>> getShoeSummaries() {
+        log.info("Fetching shoe summaries");
+        List<ShoeSummaryResponse> shoes = shoeService.getShoeSummaries();
+        return ResponseEntity.ok(shoes);
+    }
+
+    @GetMapping("/summary/brand/{brand}")
+    public ResponseEntity<List<ShoeSummaryResponse>> getShoeSummariesByBrand(@PathVariable String brand) {
+        log.info("Fetching shoe summaries with brand: {}", brand);
+        List<ShoeSummaryResponse> shoes = shoeService.getShoeSummariesByBrand(brand);
+        return ResponseEntity.ok(shoes);
+    }
+
+    @GetMapping("/summary/category/{category}")
+    public ResponseEntity<List<ShoeSummaryResponse>> getShoeSummariesByCategory(@PathVariable String category) {
+        log.info("Fetching shoe summaries with category: {}", category);
+        List<ShoeSummaryResponse> shoes = shoeService.getShoeSummariesByCategory(category);
+        return ResponseEntity.ok(shoes);
+    }
+
 
     // New endpoint with image upload
     @PostMapping(consumes = { MediaType.MULTIPART_FORM_DATA_VALUE })
@@ -64,8 +115,8 @@ public class ShoeController {
         log.info("Creating new shoe: {} with image", shoeRequest.getName());
 
         if (imageFile != null && !imageFile.isEmpty()) {
-            String imageUrl = imageService.storeImage(imageFile);
-            shoeRequest.setImageUrl(imageUrl);
+            String imageKey = imageService.storeImage(imageFile);
+            shoeRequest.setImageUrl(imageService.getImageUrl(imageKey));
         }
 
         ShoeResponse createdShoe = shoeService.createShoe(shoeRequest);
@@ -94,8 +145,8 @@ public class ShoeController {
         log.info("Updating shoe with id: {} with image", id);
 
         if (imageFile != null && !imageFile.isEmpty()) {
-            String imageUrl = imageService.storeImage(imageFile);
-            shoeRequest.setImageUrl(imageUrl);
+            String imageKey = imageService.storeImage(imageFile);
+            shoeRequest.setImageUrl(imageService.getImageUrl(imageKey));
         }
 
         ShoeResponse updatedShoe = shoeService.updateShoe(id, shoeRequest);
@@ -113,6 +164,28 @@ public class ShoeController {
         return ResponseEntity.ok(updatedShoe);
     }
 
+    // The body is read as a raw stream, so large files are never buffered in memory
+    @PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" })
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ShoeImportJobResponse> importShoes(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+        log.info("Starting shoe import from {}", contentType);
+        ShoeImportJobResponse job = shoeImportService.startImport(ShoeImportService.Format.from(contentType), body);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{jobId}")
+                .buildAndExpand(job.getJobId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
+    @GetMapping("/import/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ShoeImportJobResponse> getImportJob(@PathVariable String jobId) {
+        ShoeImportJobResponse job = shoeImportService.getJob(jobId);
+        return ResponseEntity.ok(job);
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Void> deleteShoe(@PathVariable Long id) {
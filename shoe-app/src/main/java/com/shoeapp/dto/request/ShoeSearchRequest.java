@@ -0,0 +1,33 @@
+package com.shoeapp.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShoeSearchRequest {
+    // Free text matched against name and description; every word must match, as a prefix
+    private String q;
+
+    // Facet filters: values within one facet are OR-ed, facets are AND-ed
+    private List<String> brand;
+    private List<String> category;
+    private List<String> size;
+    private List<String> color;
+
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+
+    // relevance, price_asc, price_desc or newest
+    private String sort;
+
+    private Integer page;
+    private Integer limit;
+}
@@ -0,0 +1,18 @@
+package com.shoeapp.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AvailabilityResponse {
+    // Null when that value wasn't asked about
+    private Boolean usernameAvailable;
+    private Boolean emailAvailable;
+}
@@ -0,0 +1,38 @@
+package com.shoeapp.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShoeImportJobResponse {
+    private String jobId;
+    private String format;
+    private String status;
+    private long rowsProcessed;
+    private long created;
+    private long updated;
+    private long failed;
+    // Set when the job as a whole failed, e.g. on an unreadable header
+    private String message;
+    // Capped at app.shoes.import.max-errors; failed holds the full count
+    private List<RowError> errors;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowError {
+        // 1-based, counting data rows only
+        private long row;
+        private String message;
+    }
+}
@@ -0,0 +1,21 @@
+package com.shoeapp.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShoePageResponse {
+    private List<ShoeResponse> items;
+    private Integer size;
+    private boolean hasMore;
+
+    // Opaque token to pass back as ?cursor= for the next page, null on the last page
+    private String nextCursor;
+}
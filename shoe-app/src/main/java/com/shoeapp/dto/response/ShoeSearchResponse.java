@@ -0,0 +1,24 @@
+package com.shoeapp.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShoeSearchResponse {
+    private List<ShoeResponse> items;
+    private Integer total;
+    private Integer page;
+    private Integer limit;
+
+    // Facet name -> value -> number of matching shoes. Each facet's counts ignore that
+    // facet's own filter, so the other values stay selectable.
+    private Map<String, Map<String, Integer>> facets;
+}
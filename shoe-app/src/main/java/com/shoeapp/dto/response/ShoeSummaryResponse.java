@@ -0,0 +1,21 @@
+package com.shoeapp.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShoeSummaryResponse {
+    private Long id;
+    private String name;
+    private String brand;
+    private BigDecimal price;
+    private String imageUrl;
+    private boolean inStock;
+}
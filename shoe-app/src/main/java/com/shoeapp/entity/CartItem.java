@@ -12,7 +12,11 @@ import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
-@Table(name = "cart_items")
+@Table(name = "cart_items", indexes = {
+        // Open cart lookups filter on user_id and order_id IS NULL, optionally narrowed by shoe_id
+        @Index(name = "idx_cart_items_user_order_shoe", columnList = "user_id, order_id, shoe_id"),
+        @Index(name = "idx_cart_items_order", columnList = "order_id")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -20,7 +24,8 @@ import java.util.Objects;
 public class CartItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_items_seq")
+    @SequenceGenerator(name = "cart_items_seq", sequenceName = "cart_items_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -31,6 +36,8 @@ public class CartItem {
     @JoinColumn(name = "shoe_id", nullable = false)
     private Shoe shoe;
 
+    // Only set on lines of orders placed before order_lines existed, until they are backfilled;
+    // checkout now deletes the cart rows
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id")
     private Order order;
@@ -0,0 +1,82 @@
+package com.shoeapp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * A line of a placed order, copied from the shoe as it was at checkout. Later catalogue changes
+ * don't reach it, and order history is rendered from these rows alone. shoe_id is kept for
+ * reference only, without a foreign key, so a shoe can be removed from the catalogue.
+ */
+@Entity
+@Immutable
+@Table(name = "order_lines", indexes = {
+        @Index(name = "idx_order_lines_order", columnList = "order_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderLine {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_lines_seq")
+    @SequenceGenerator(name = "order_lines_seq", sequenceName = "order_lines_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", nullable = false)
+    private Order order;
+
+    @Column(nullable = false)
+    private Long shoeId;
+
+    @Column(nullable = false)
+    private String shoeName;
+
+    @Column(nullable = false)
+    private String shoeBrand;
+
+    @Column(nullable = false)
+    private String shoeSize;
+
+    @Column(nullable = false)
+    private String shoeColor;
+
+    @Column(nullable = false)
+    private BigDecimal unitPrice;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(length = 80)
+    private String imageKey;
+
+    @Column(length = 512)
+    private String imageUrl;
+
+
+    public BigDecimal getTotalPrice() {
+        return unitPrice.multiply(BigDecimal.valueOf(quantity));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        OrderLine orderLine = (OrderLine) o;
+        return Objects.equals(id, orderLine.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
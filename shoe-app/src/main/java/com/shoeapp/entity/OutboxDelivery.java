@@ -0,0 +1,44 @@
+package com.shoeapp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Records that a handler has processed an outbox event. Written in the handler's own
+ * transaction, so an event that is delivered again is skipped by the handlers that already
+ * committed it.
+ */
+@Entity
+@Table(name = "outbox_deliveries")
+@IdClass(OutboxDelivery.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxDelivery {
+
+    @Id
+    @Column(length = 36)
+    private String eventKey;
+
+    @Id
+    @Column(length = 100)
+    private String handler;
+
+    @Column(nullable = false)
+    private LocalDateTime processedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String eventKey;
+        private String handler;
+    }
+}
@@ -14,7 +14,12 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "shoes")
+@Table(name = "shoes", indexes = {
+        @Index(name = "idx_shoes_brand", columnList = "brand"),
+        @Index(name = "idx_shoes_category", columnList = "category"),
+        @Index(name = "idx_shoes_price", columnList = "price"),
+        @Index(name = "idx_shoes_created_at_id", columnList = "created_at, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -22,7 +27,8 @@ import java.util.Set;
 public class Shoe {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shoes_seq")
+    @SequenceGenerator(name = "shoes_seq", sequenceName = "shoes_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -49,9 +55,12 @@ public class Shoe {
     @Column(length = 1000)
     private String description;
 
-    // Change to:
-    @Lob  // This will map to a CLOB/TEXT type which can store large strings
-    @Column(columnDefinition = "TEXT")
+    // Key into the content-addressed image store for uploaded images
+    @Column(length = 80)
+    private String imageKey;
+
+    // Only for externally hosted images; uploads and data URIs are moved into the image store
+    @Column(length = 512)
     private String imageUrl;
 
     @OneToMany(mappedBy = "shoe", cascade = CascadeType.ALL, orphanRemoval = true)
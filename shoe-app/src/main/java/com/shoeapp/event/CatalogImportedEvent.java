@@ -0,0 +1,8 @@
+package com.shoeapp.event;
+
+/**
+ * Published once when a bulk import finishes, in place of a {@link ShoeChangedEvent} per row.
+ * The imported rows are already committed when it is published.
+ */
+public record CatalogImportedEvent(String jobId, long created, long updated) {
+}
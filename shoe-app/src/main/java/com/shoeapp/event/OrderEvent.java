@@ -0,0 +1,22 @@
+package com.shoeapp.event;
+
+import com.shoeapp.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Outbox payload for an order being placed or changing status. {@code fromStatus} is null when
+ * the order was just placed.
+ */
+public record OrderEvent(Long orderId, Long userId, LocalDate orderDate, String fromStatus, String toStatus,
+                         BigDecimal totalAmount) {
+
+    public static final String PLACED = "ORDER_PLACED";
+    public static final String STATUS_CHANGED = "ORDER_STATUS_CHANGED";
+
+    public static OrderEvent of(Order order, String fromStatus) {
+        return new OrderEvent(order.getId(), order.getUser().getId(), order.getOrderDate().toLocalDate(),
+                fromStatus, order.getStatus(), order.getTotalAmount());
+    }
+}
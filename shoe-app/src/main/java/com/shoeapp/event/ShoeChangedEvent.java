@@ -0,0 +1,22 @@
+package com.shoeapp.event;
+
+import com.shoeapp.entity.Shoe;
+
+/**
+ * Published by the shoe service whenever a shoe is created, updated or deleted.
+ * {@code shoe} holds the saved state, or is null when the shoe was deleted.
+ */
+public record ShoeChangedEvent(Long shoeId, Shoe shoe) {
+
+    public static ShoeChangedEvent saved(Shoe shoe) {
+        return new ShoeChangedEvent(shoe.getId(), shoe);
+    }
+
+    public static ShoeChangedEvent deleted(Long shoeId) {
+        return new ShoeChangedEvent(shoeId, null);
+    }
+
+    public boolean isDeleted() {
+        return shoe == null;
+    }
+}
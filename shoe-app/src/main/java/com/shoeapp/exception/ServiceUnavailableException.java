@@ -0,0 +1,13 @@
+package com.shoeapp.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+public class ServiceUnavailableException extends RuntimeException {
+    private final HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,195 @@
+package com.shoeapp.outbox;
+
+import com.shoeapp.entity.OutboxDelivery;
+import com.shoeapp.entity.OutboxEvent;
+import com.shoeapp.repository.OutboxDeliveryRepository;
+import com.shoeapp.repository.OutboxEventRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the outbox in the background, so the transactions that write events never wait for
+ * their consumers. Due events are read oldest first in batches of app.outbox.batch-size and
+ * handed to every handler that supports them, each handler in its own transaction. An event is
+ * processed once all its handlers have taken it; otherwise it is retried with exponential
+ * backoff, and set aside as FAILED after app.outbox.max-attempts. A retry only reaches the
+ * handlers that haven't committed the event yet.
+ * <p>
+ * Polling runs on a scheduler thread of its own rather than on the shared @Scheduled one, since a
+ * drain can take as long as the backlog and its slowest handler; the cart write-behind flush
+ * must not wait behind it, nor it behind the flush.
+ */
+@Component
+@Slf4j
+public class OutboxDispatcher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxDeliveryRepository outboxDeliveryRepository;
+    private final List<OutboxHandler> handlers;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.retry-delay:1s}")
+    private Duration retryDelay;
+
+    @Value("${app.outbox.max-retry-delay:5m}")
+    private Duration maxRetryDelay;
+
+    @Value("${app.outbox.retention:7d}")
+    private Duration retention;
+
+    @Value("${app.outbox.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${app.outbox.cleanup-interval-ms:3600000}")
+    private long cleanupIntervalMs;
+
+    private ScheduledExecutorService scheduler;
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            OutboxDeliveryRepository outboxDeliveryRepository,
+                            List<OutboxHandler> handlers, TransactionTemplate transactionTemplate) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxDeliveryRepository = outboxDeliveryRepository;
+        this.handlers = handlers;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // Once the initializers have run, like the @Scheduled jobs would have
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("outbox-"));
+        scheduler.scheduleWithFixedDelay(logFailures("dispatch", this::dispatch),
+                0, pollIntervalMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(logFailures("cleanup", this::purgeProcessed),
+                cleanupIntervalMs, cleanupIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    public void dispatch() {
+        List<OutboxEvent> events;
+        do {
+            events = outboxEventRepository.findDue(LocalDateTime.now(), PageRequest.of(0, batchSize));
+            List<Long> processed = new ArrayList<>(events.size());
+            for (OutboxEvent event : events) {
+                if (dispatch(event)) {
+                    processed.add(event.getId());
+                }
+            }
+            if (!processed.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status ->
+                        outboxEventRepository.markProcessed(processed, LocalDateTime.now()));
+            }
+        } while (events.size() == batchSize);
+    }
+
+    public void purgeProcessed() {
+        transactionTemplate.executeWithoutResult(status -> {
+            int events = outboxEventRepository.deleteProcessedBefore(LocalDateTime.now().minus(retention));
+            int deliveries = outboxDeliveryRepository.deleteOrphaned();
+            if (events > 0) {
+                log.info("Purged {} processed outbox events and {} delivery records", events, deliveries);
+            }
+        });
+    }
+
+    // An exception escaping a periodic task would cancel all its later runs
+    private static Runnable logFailures(String task, Runnable action) {
+        return () -> {
+            try {
+                action.run();
+            } catch (RuntimeException ex) {
+                log.error("Outbox {} failed", task, ex);
+            }
+        };
+    }
+
+    private boolean dispatch(OutboxEvent event) {
+        RuntimeException failure = null;
+        for (OutboxHandler handler : handlers) {
+            if (!handler.supports(event.getEventType())) {
+                continue;
+            }
+            try {
+                deliver(event, handler);
+            } catch (RuntimeException ex) {
+                log.warn("Outbox handler {} failed on {} event {} (attempt {})",
+                        handler.getName(), event.getEventType(), event.getId(), event.getAttempts() + 1, ex);
+                failure = ex;
+            }
+        }
+
+        if (failure != null) {
+            recordFailure(event, failure);
+            return false;
+        }
+        return true;
+    }
+
+    private void deliver(OutboxEvent event, OutboxHandler handler) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Recorded first: a repeated delivery fails on the key before the handler runs
+                outboxDeliveryRepository.insert(event.getEventKey(), handler.getName(), LocalDateTime.now());
+                handler.handle(event);
+            });
+        } catch (DataIntegrityViolationException ex) {
+            if (!outboxDeliveryRepository.existsById(new OutboxDelivery.Key(event.getEventKey(), handler.getName()))) {
+                throw ex;
+            }
+            log.debug("Outbox event {} was already delivered to {}", event.getId(), handler.getName());
+        }
+    }
+
+    private void recordFailure(OutboxEvent event, RuntimeException failure) {
+        int attempts = event.getAttempts() + 1;
+        boolean givingUp = attempts >= maxAttempts;
+        String message = NestedExceptionUtils.getMostSpecificCause(failure).toString();
+        if (message.length() > 1000) {
+            message = message.substring(0, 1000);
+        }
+
+        Duration delay = retryDelay.multipliedBy(1L << Math.min(attempts - 1, 20));
+        if (delay.compareTo(maxRetryDelay) > 0) {
+            delay = maxRetryDelay;
+        }
+
+        String lastError = message;
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plus(delay);
+        transactionTemplate.executeWithoutResult(status -> outboxEventRepository.markAttemptFailed(event.getId(),
+                givingUp ? OutboxEvent.FAILED : OutboxEvent.PENDING, attempts, nextAttemptAt, lastError));
+
+        if (givingUp) {
+            log.error("Giving up on {} event {} after {} attempts: {}",
+                    event.getEventType(), event.getId(), attempts, lastError);
+        }
+    }
+}
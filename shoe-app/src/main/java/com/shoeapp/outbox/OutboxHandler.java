@@ -0,0 +1,21 @@
+package com.shoeapp.outbox;
+
+import com.shoeapp.entity.OutboxEvent;
+
+/**
+ * Consumes outbox events. Every handler bean receives the events whose type it supports, after
+ * the transaction that wrote them has committed.
+ */
+public interface OutboxHandler {
+
+    /** Stored with each delivery, so it has to stay the same from one release to the next. */
+    public String getName();
+
+    public boolean supports(String eventType);
+
+    /**
+     * Runs in a transaction that also records the delivery, so the handler's own database
+     * writes happen exactly once. Throwing rolls both back and the event is retried later.
+     */
+    public void handle(OutboxEvent event);
+}
@@ -2,12 +2,35 @@ package com.shoeapp.repository;
 
 import com.shoeapp.entity.CartItem;
 import com.shoeapp.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+
+    interface OpenCartLine {
+        Long getId();
+        Long getShoeId();
+        Integer getQuantity();
+    }
+
+    // Cart lines are always rendered with their shoe, so fetch it in the same statement
+    @EntityGraph(attributePaths = "shoe")
     List<CartItem> findByUserAndOrderIsNull(User user);
+
     Optional<CartItem> findByUserIdAndShoeIdAndOrderIsNull(Long userId, Long shoeId);
+
+    // Lines of orders placed before order_lines existed, with the shoe they are snapshotted from and their order
+    @Query("select c from CartItem c join fetch c.shoe join fetch c.order where c.order is not null order by c.id")
+    List<CartItem> findOrderedItems(Pageable pageable);
+
+    // Just the columns the in-memory cart needs when it rehydrates a user's cart
+    @Query("select c.id as id, c.shoe.id as shoeId, c.quantity as quantity from CartItem c " +
+            "where c.user.id = :userId and c.order is null order by c.id")
+    List<OpenCartLine> findOpenCartLines(@Param("userId") Long userId);
 }
@@ -0,0 +1,54 @@
+package com.shoeapp.repository;
+
+import com.shoeapp.entity.OrderDailyStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface OrderDailyStatRepository extends JpaRepository<OrderDailyStat, OrderDailyStat.Key> {
+
+    interface StatusTotals {
+        String getStatus();
+        Long getOrderCount();
+        BigDecimal getRevenue();
+    }
+
+    interface DailyTotals {
+        LocalDate getStatDate();
+        Long getOrderCount();
+        BigDecimal getRevenue();
+    }
+
+    @Query("select s.status as status, sum(s.orderCount) as orderCount, sum(s.revenue) as revenue " +
+            "from OrderDailyStat s where s.statDate >= :from group by s.status")
+    List<StatusTotals> sumByStatusSince(@Param("from") LocalDate from);
+
+    @Query("select s.statDate as statDate, sum(s.orderCount) as orderCount, sum(s.revenue) as revenue " +
+            "from OrderDailyStat s where s.statDate >= :from group by s.statDate order by s.statDate")
+    List<DailyTotals> sumByDateSince(@Param("from") LocalDate from);
+
+    @Modifying
+    @Query("update OrderDailyStat s set s.orderCount = s.orderCount + :count, s.revenue = s.revenue + :amount " +
+            "where s.statDate = :statDate and s.status = :status")
+    int increment(@Param("statDate") LocalDate statDate,
+                  @Param("status") String status,
+                  @Param("count") long count,
+                  @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query(value = "INSERT INTO order_daily_stats (stat_date, status, order_count, revenue) VALUES (:statDate, :status, 0, 0)",
+            nativeQuery = true)
+    void insertEmpty(@Param("statDate") LocalDate statDate, @Param("status") String status);
+
+    @Modifying
+    @Query(value = "INSERT INTO order_daily_stats (stat_date, status, order_count, revenue) " +
+            "SELECT CAST(order_date AS DATE), status, COUNT(*), SUM(total_amount) FROM orders " +
+            "GROUP BY CAST(order_date AS DATE), status",
+            nativeQuery = true)
+    int rebuildFromOrders();
+}
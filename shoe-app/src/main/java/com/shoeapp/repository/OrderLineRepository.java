@@ -0,0 +1,7 @@
+package com.shoeapp.repository;
+
+import com.shoeapp.entity.OrderLine;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface OrderLineRepository extends JpaRepository<OrderLine, Long> {
+}
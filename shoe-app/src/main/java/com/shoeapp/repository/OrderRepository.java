@@ -3,13 +3,23 @@ package com.shoeapp.repository;
 import com.shoeapp.entity.Order;
 import com.shoeapp.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUser(User user);
-    List<Order> findByUserOrderByOrderDateDesc(User user);
+
+    // Order history in one statement; the lines carry everything shown, so no catalogue joins
+    @Query("select o from Order o left join fetch o.lines where o.user.id = :userId " +
+            "order by o.orderDate desc, o.id desc")
+    List<Order> findHistoryByUserId(@Param("userId") Long userId);
+
+    @Query("select o from Order o left join fetch o.lines where o.id = :id")
+    Optional<Order> findWithLinesById(@Param("id") Long id);
 
     // Add to OrderRepository interface
     List<Order> findByOrderDateBetween(LocalDateTime startDate, LocalDateTime endDate);
@@ -0,0 +1,36 @@
+package com.shoeapp.repository;
+
+import com.shoeapp.entity.OutboxDelivery;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface OutboxDeliveryRepository extends JpaRepository<OutboxDelivery, OutboxDelivery.Key> {
+
+    @Modifying
+    @Query(value = "INSERT INTO outbox_deliveries (event_key, handler, processed_at) VALUES (:eventKey, :handler, :processedAt)",
+            nativeQuery = true)
+    void insert(@Param("eventKey") String eventKey,
+                @Param("handler") String handler,
+                @Param("processedAt") LocalDateTime processedAt);
+
+    // For a handler whose state was rebuilt from scratch and already reflects every unprocessed event
+    @Modifying
+    @Query(value = "INSERT INTO outbox_deliveries (event_key, handler, processed_at) " +
+            "SELECT e.event_key, :handler, CURRENT_TIMESTAMP FROM outbox_events e " +
+            "WHERE e.status <> 'PROCESSED' AND e.event_type IN (:eventTypes) AND NOT EXISTS " +
+            "(SELECT 1 FROM outbox_deliveries d WHERE d.event_key = e.event_key AND d.handler = :handler)",
+            nativeQuery = true)
+    int markUnprocessedAsDelivered(@Param("handler") String handler,
+                                   @Param("eventTypes") Collection<String> eventTypes);
+
+    @Modifying
+    @Query(value = "DELETE FROM outbox_deliveries d WHERE NOT EXISTS " +
+            "(SELECT 1 FROM outbox_events e WHERE e.event_key = d.event_key)",
+            nativeQuery = true)
+    int deleteOrphaned();
+}
@@ -0,0 +1,36 @@
+package com.shoeapp.repository;
+
+import com.shoeapp.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query("select e from OutboxEvent e where e.status = 'PENDING' and e.nextAttemptAt <= :now order by e.id asc")
+    List<OutboxEvent> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.status = 'PROCESSED', e.processedAt = :now, e.lastError = null " +
+            "where e.id in :ids")
+    int markProcessed(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.status = :status, e.attempts = :attempts, " +
+            "e.nextAttemptAt = :nextAttemptAt, e.lastError = :lastError where e.id = :id")
+    int markAttemptFailed(@Param("id") Long id,
+                          @Param("status") String status,
+                          @Param("attempts") int attempts,
+                          @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                          @Param("lastError") String lastError);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.status = 'PROCESSED' and e.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+}
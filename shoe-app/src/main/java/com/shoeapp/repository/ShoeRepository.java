@@ -1,12 +1,65 @@
 package com.shoeapp.repository;
 
 import com.shoeapp.entity.Shoe;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ShoeRepository extends JpaRepository<Shoe, Long> {
+
+    interface ShoeSummary {
+        Long getId();
+        String getName();
+        String getBrand();
+        BigDecimal getPrice();
+        Integer getStock();
+        String getImageKey();
+        String getImageUrl();
+    }
+
     List<Shoe> findByBrand(String brand);
     List<Shoe> findByCategory(String category);
-    List<Shoe> findByPriceBetween(Double minPrice, Double maxPrice);
+    List<Shoe> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
+    List<Shoe> findByBrandInAndNameIn(Collection<String> brands, Collection<String> names);
+
+    @Query("select s.id from Shoe s where s.imageUrl like 'data:%' and s.id > :afterId order by s.id asc")
+    List<Long> findIdsWithInlineImage(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Keyset pagination: seek past the last row of the previous page instead of using OFFSET
+    List<Shoe> findAllByOrderByIdAsc(Pageable pageable);
+    List<Shoe> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("select s from Shoe s order by s.createdAt asc, s.id asc")
+    List<Shoe> findFirstPageOrderByCreatedAt(Pageable pageable);
+
+    // The redundant >= bound lets the (created_at, id) index seek to the cursor; the OR alone only scans it
+    @Query("select s from Shoe s where s.createdAt >= :createdAt " +
+            "and (s.createdAt > :createdAt or (s.createdAt = :createdAt and s.id > :id)) " +
+            "order by s.createdAt asc, s.id asc")
+    List<Shoe> findPageAfterCreatedAt(@Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+
+    // Just the columns list pages show; the description and timestamps stay in the database
+    @Query("select s.id as id, s.name as name, s.brand as brand, s.price as price, s.stock as stock, " +
+            "s.imageKey as imageKey, s.imageUrl as imageUrl from Shoe s order by s.id")
+    List<ShoeSummary> findAllSummaries();
+
+    @Query("select s.id as id, s.name as name, s.brand as brand, s.price as price, s.stock as stock, " +
+            "s.imageKey as imageKey, s.imageUrl as imageUrl from Shoe s where s.brand = :brand order by s.id")
+    List<ShoeSummary> findSummariesByBrand(@Param("brand") String brand);
+
+    @Query("select s.id as id, s.name as name, s.brand as brand, s.price as price, s.stock as stock, " +
+            "s.imageKey as imageKey, s.imageUrl as imageUrl from Shoe s where s.category = :category order by s.id")
+    List<ShoeSummary> findSummariesByCategory(@Param("category") String category);
+
+    @Query("select max(s.updatedAt) from Shoe s")
+    Optional<LocalDateTime> findLastUpdatedAt();
 }
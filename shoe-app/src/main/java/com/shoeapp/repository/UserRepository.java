@@ -1,13 +1,28 @@
 package com.shoeapp.repository;
 
 import com.shoeapp.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    interface AccountKeys {
+        Long getId();
+        String getUsername();
+        String getEmail();
+    }
+
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
     Boolean existsByUsername(String username);
     Boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    @Query("select u.id as id, u.username as username, u.email as email from User u " +
+            "where u.id > :afterId order by u.id")
+    List<AccountKeys> findAccountKeysAfter(@Param("afterId") Long afterId, Pageable pageable);
+}
@@ -0,0 +1,395 @@
+package com.shoeapp.search;
+
+import com.shoeapp.dto.request.ShoeSearchRequest;
+import com.shoeapp.entity.Shoe;
+import com.shoeapp.event.ShoeChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the catalogue. Every shoe gets a small integer doc number;
+ * name and description words, facet values and prices each map to a {@link BitSet} of doc
+ * numbers, so a search is a handful of bitset unions and intersections rather than a query.
+ * Words live in sorted maps, which turns prefix matching into a range lookup.
+ */
+@Component
+@Slf4j
+public class ShoeSearchIndex {
+
+    public static final String BRAND = "brand";
+    public static final String CATEGORY = "category";
+    public static final String SIZE = "size";
+    public static final String COLOR = "color";
+    public static final String PRICE = "price";
+
+    public static final String SORT_RELEVANCE = "relevance";
+    public static final String SORT_PRICE_ASC = "price_asc";
+    public static final String SORT_PRICE_DESC = "price_desc";
+    public static final String SORT_NEWEST = "newest";
+
+    private static final List<String> FACETS = List.of(BRAND, CATEGORY, SIZE, COLOR);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Doc numbers of deleted shoes are reused so the bitsets stay dense
+    private final List<Document> documents = new ArrayList<>();
+    private final Map<Long, Integer> docsByShoeId = new HashMap<>();
+    private final Deque<Integer> freeDocs = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+
+    private final TreeMap<String, BitSet> nameTerms = new TreeMap<>();
+    private final TreeMap<String, BitSet> descriptionTerms = new TreeMap<>();
+    private final Map<String, Map<String, BitSet>> facetPostings = new HashMap<>();
+    private final Map<String, Map<String, String>> facetLabels = new HashMap<>();
+    private final TreeMap<BigDecimal, BitSet> pricePostings = new TreeMap<>();
+
+    @Value("${app.search.price-buckets:50,100,150,200}")
+    private List<BigDecimal> priceBuckets = List.of();
+
+    public ShoeSearchIndex() {
+        for (String facet : FACETS) {
+            facetPostings.put(facet, new HashMap<>());
+            facetLabels.put(facet, new HashMap<>());
+        }
+    }
+
+    // After commit, so rolled-back writes never become searchable
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onShoeChanged(ShoeChangedEvent event) {
+        if (event.isDeleted()) {
+            remove(event.shoeId());
+        } else {
+            index(event.shoe());
+        }
+    }
+
+    public void index(Shoe shoe) {
+        Document document = new Document(shoe.getId(), tokenize(shoe.getName()), tokenize(shoe.getDescription()),
+                facetValues(shoe), shoe.getPrice());
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(shoe.getId());
+
+            int doc = freeDocs.isEmpty() ? documents.size() : freeDocs.pop();
+            if (doc == documents.size()) {
+                documents.add(document);
+            } else {
+                documents.set(doc, document);
+            }
+            docsByShoeId.put(document.shoeId(), doc);
+            live.set(doc);
+
+            for (String term : document.nameTerms()) {
+                nameTerms.computeIfAbsent(term, t -> new BitSet()).set(doc);
+            }
+            for (String term : document.descriptionTerms()) {
+                descriptionTerms.computeIfAbsent(term, t -> new BitSet()).set(doc);
+            }
+            document.facets().forEach((facet, label) -> {
+                String value = normalize(label);
+                facetPostings.get(facet).computeIfAbsent(value, v -> new BitSet()).set(doc);
+                facetLabels.get(facet).put(value, label);
+            });
+            if (document.price() != null) {
+                pricePostings.computeIfAbsent(document.price(), p -> new BitSet()).set(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long shoeId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(shoeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            docsByShoeId.clear();
+            freeDocs.clear();
+            live.clear();
+            nameTerms.clear();
+            descriptionTerms.clear();
+            facetPostings.values().forEach(Map::clear);
+            facetLabels.values().forEach(Map::clear);
+            pricePostings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docsByShoeId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public SearchResult search(ShoeSearchRequest request, int offset, int limit) {
+        List<String> words = new ArrayList<>(new LinkedHashSet<>(tokenize(request.getQ())));
+        String sort = request.getSort() != null ? request.getSort()
+                : words.isEmpty() ? SORT_NEWEST : SORT_RELEVANCE;
+
+        lock.readLock().lock();
+        try {
+            // Docs matching the text; each word must appear in the name or description
+            BitSet base = (BitSet) live.clone();
+            List<BitSet> nameMatches = new ArrayList<>(words.size());
+            for (String word : words) {
+                BitSet inName = prefixMatch(nameTerms, word);
+                BitSet matches = prefixMatch(descriptionTerms, word);
+                matches.or(inName);
+                base.and(matches);
+                nameMatches.add(inName);
+            }
+
+            Map<String, BitSet> filters = new HashMap<>();
+            addFacetFilter(filters, BRAND, request.getBrand());
+            addFacetFilter(filters, CATEGORY, request.getCategory());
+            addFacetFilter(filters, SIZE, request.getSize());
+            addFacetFilter(filters, COLOR, request.getColor());
+            if (request.getMinPrice() != null || request.getMaxPrice() != null) {
+                filters.put(PRICE, priceRange(request.getMinPrice(), request.getMaxPrice()));
+            }
+
+            BitSet hits = (BitSet) base.clone();
+            filters.values().forEach(hits::and);
+
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            for (String facet : FACETS) {
+                facets.put(facet, countFacet(facet, scopeExcluding(base, filters, facet)));
+            }
+            facets.put(PRICE, countPriceBuckets(scopeExcluding(base, filters, PRICE)));
+
+            int[] docs = hits.stream().toArray();
+            List<Long> shoeIds = sortedPage(docs, sort, nameMatches, offset, limit);
+            return new SearchResult(shoeIds, docs.length, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static boolean isValidSort(String sort) {
+        return SORT_RELEVANCE.equals(sort) || SORT_PRICE_ASC.equals(sort)
+                || SORT_PRICE_DESC.equals(sort) || SORT_NEWEST.equals(sort);
+    }
+
+    private void removeInternal(Long shoeId) {
+        Integer doc = docsByShoeId.remove(shoeId);
+        if (doc == null) {
+            return;
+        }
+        Document document = documents.get(doc);
+        documents.set(doc, null);
+        freeDocs.push(doc);
+        live.clear(doc);
+
+        for (String term : document.nameTerms()) {
+            clearPosting(nameTerms, term, doc);
+        }
+        for (String term : document.descriptionTerms()) {
+            clearPosting(descriptionTerms, term, doc);
+        }
+        document.facets().forEach((facet, label) -> {
+            String value = normalize(label);
+            if (clearPosting(facetPostings.get(facet), value, doc)) {
+                facetLabels.get(facet).remove(value);
+            }
+        });
+        if (document.price() != null) {
+            clearPosting(pricePostings, document.price(), doc);
+        }
+    }
+
+    // Returns true if the posting became empty and was dropped
+    private static <K> boolean clearPosting(Map<K, BitSet> postings, K key, int doc) {
+        BitSet bits = postings.get(key);
+        if (bits == null) {
+            return false;
+        }
+        bits.clear(doc);
+        if (bits.isEmpty()) {
+            postings.remove(key);
+            return true;
+        }
+        return false;
+    }
+
+    private static BitSet prefixMatch(TreeMap<String, BitSet> terms, String prefix) {
+        BitSet matches = new BitSet();
+        for (BitSet bits : terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            matches.or(bits);
+        }
+        return matches;
+    }
+
+    private void addFacetFilter(Map<String, BitSet> filters, String facet, List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+        BitSet matches = new BitSet();
+        for (String value : values) {
+            BitSet bits = facetPostings.get(facet).get(normalize(value));
+            if (bits != null) {
+                matches.or(bits);
+            }
+        }
+        filters.put(facet, matches);
+    }
+
+    private BitSet priceRange(BigDecimal min, BigDecimal max) {
+        NavigableMap<BigDecimal, BitSet> range = pricePostings;
+        if (min != null) {
+            range = range.tailMap(min, true);
+        }
+        if (max != null) {
+            range = range.headMap(max, true);
+        }
+        BitSet matches = new BitSet();
+        range.values().forEach(matches::or);
+        return matches;
+    }
+
+    private static BitSet scopeExcluding(BitSet base, Map<String, BitSet> filters, String facet) {
+        BitSet scope = (BitSet) base.clone();
+        filters.forEach((name, bits) -> {
+            if (!name.equals(facet)) {
+                scope.and(bits);
+            }
+        });
+        return scope;
+    }
+
+    private Map<String, Integer> countFacet(String facet, BitSet scope) {
+        Map<String, Integer> counts = new TreeMap<>();
+        Map<String, String> labels = facetLabels.get(facet);
+        facetPostings.get(facet).forEach((value, bits) -> {
+            BitSet matches = (BitSet) bits.clone();
+            matches.and(scope);
+            int count = matches.cardinality();
+            if (count > 0) {
+                counts.put(labels.get(value), count);
+            }
+        });
+        return counts;
+    }
+
+    private Map<String, Integer> countPriceBuckets(BitSet scope) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        BigDecimal lower = BigDecimal.ZERO;
+        for (BigDecimal upper : priceBuckets) {
+            countPriceRange(counts, lower.toPlainString() + "-" + upper.toPlainString(),
+                    pricePostings.subMap(lower, true, upper, false), scope);
+            lower = upper;
+        }
+        countPriceRange(counts, lower.toPlainString() + "+", pricePostings.tailMap(lower, true), scope);
+        return counts;
+    }
+
+    private static void countPriceRange(Map<String, Integer> counts, String label,
+                                        NavigableMap<BigDecimal, BitSet> range, BitSet scope) {
+        BitSet matches = new BitSet();
+        range.values().forEach(matches::or);
+        matches.and(scope);
+        int count = matches.cardinality();
+        if (count > 0) {
+            counts.put(label, count);
+        }
+    }
+
+    private List<Long> sortedPage(int[] docs, String sort, List<BitSet> nameMatches, int offset, int limit) {
+        if (offset >= docs.length) {
+            return List.of();
+        }
+
+        Comparator<Document> newest = Comparator.comparing(Document::shoeId).reversed();
+        Comparator<Document> order = switch (sort) {
+            case SORT_PRICE_ASC -> Comparator.comparing(Document::price, Comparator.nullsLast(Comparator.naturalOrder()))
+                    .thenComparing(newest);
+            case SORT_PRICE_DESC -> Comparator.comparing(Document::price, Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(newest);
+            case SORT_RELEVANCE -> Comparator.<Document>comparingInt(d -> -nameScore(nameMatches, docsByShoeId.get(d.shoeId())))
+                    .thenComparing(newest);
+            default -> newest;
+        };
+
+        return Arrays.stream(docs)
+                .mapToObj(documents::get)
+                .sorted(order)
+                .skip(offset)
+                .limit(limit)
+                .map(Document::shoeId)
+                .toList();
+    }
+
+    // Words found in the name rank above words found only in the description
+    private static int nameScore(List<BitSet> nameMatches, int doc) {
+        int score = 0;
+        for (BitSet matches : nameMatches) {
+            if (matches.get(doc)) {
+                score++;
+            }
+        }
+        return score;
+    }
+
+    private static Map<String, String> facetValues(Shoe shoe) {
+        Map<String, String> values = new HashMap<>();
+        putIfPresent(values, BRAND, shoe.getBrand());
+        putIfPresent(values, CATEGORY, shoe.getCategory());
+        putIfPresent(values, SIZE, shoe.getSize());
+        putIfPresent(values, COLOR, shoe.getColor());
+        return values;
+    }
+
+    private static void putIfPresent(Map<String, String> values, String facet, String value) {
+        if (value != null && !value.isBlank()) {
+            values.put(facet, value.trim());
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        // Fold accents so "cafe" finds "Café"
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : folded.split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private record Document(Long shoeId, List<String> nameTerms, List<String> descriptionTerms,
+                            Map<String, String> facets, BigDecimal price) {
+    }
+
+    public record SearchResult(List<Long> shoeIds, int total, Map<String, Map<String, Integer>> facets) {
+    }
+}
@@ -0,0 +1,121 @@
+package com.shoeapp.security;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over the usernames and emails already taken, so an availability check can answer
+ * "definitely free" from memory and only asks the database about a possible match. It is sized
+ * once for app.auth.availability.expected-accounts at app.auth.availability.false-positive-rate
+ * and only ever gains entries: deleted accounts and a fuller filter just cost extra lookups.
+ * Until the initializer has loaded the existing accounts every name is a possible match.
+ * Accounts created on another instance aren't seen, so an answer here is advisory; the unique
+ * constraints on users decide at signup.
+ */
+@Component
+@Slf4j
+public class AccountBloomFilter {
+
+    private static final long USERNAME_SEED = 0x9E3779B97F4A7C15L;
+    private static final long EMAIL_SEED = 0xC2B2AE3D27D4EB4FL;
+
+    @Value("${app.auth.availability.expected-accounts:100000}")
+    private long expectedAccounts;
+
+    @Value("${app.auth.availability.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private AtomicLongArray words;
+    private long bits;
+    private int hashes;
+    private volatile boolean loaded;
+
+    @PostConstruct
+    public void init() {
+        double ln2 = Math.log(2);
+        long size = (long) Math.ceil(-expectedAccounts * Math.log(falsePositiveRate) / (ln2 * ln2));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (size + 63) / 64));
+        words = new AtomicLongArray(wordCount);
+        bits = wordCount * 64L;
+        hashes = (int) Math.max(1, Math.round((double) bits / expectedAccounts * ln2));
+        log.info("Account filter sized at {} KB with {} hashes for {} accounts",
+                wordCount * 8L / 1024, hashes, expectedAccounts);
+    }
+
+    public void add(String username, String email) {
+        if (username != null) {
+            set(hash(username, USERNAME_SEED));
+        }
+        if (email != null) {
+            set(hash(email, EMAIL_SEED));
+        }
+    }
+
+    public boolean mightHaveUsername(String username) {
+        return !loaded || test(hash(username, USERNAME_SEED));
+    }
+
+    public boolean mightHaveEmail(String email) {
+        return !loaded || test(hash(email, EMAIL_SEED));
+    }
+
+    public void markLoaded() {
+        loaded = true;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public long getExpectedAccounts() {
+        return expectedAccounts;
+    }
+
+    private void set(long hash) {
+        long h1 = hash;
+        long h2 = mix(hash) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+            } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    private boolean test(long hash) {
+        long h1 = hash;
+        long h2 = mix(hash) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hash(String value, long seed) {
+        long h = seed;
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(h ^ value.length());
+    }
+
+    // Murmur3 finalizer, so nearby strings land on unrelated bits
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB93FE1A85A53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,152 @@
+package com.shoeapp.security;
+
+import com.shoeapp.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BCrypt on a small pool of its own, so a burst of logins or signups can only ever keep
+ * app.security.password-hashing.threads cores busy, and the rest of the traffic keeps the others.
+ * Callers wait for their hash on the pool; once app.security.password-hashing.queue-capacity
+ * hashes are waiting, further ones are turned away with a 503 instead of queueing without bound.
+ * <p>
+ * Unless app.security.bcrypt.strength is set, the work factor is calibrated at startup to the
+ * highest one whose hash takes at most app.security.bcrypt.target-latency on this machine, within
+ * the min-strength and max-strength bounds. A hash made at a lower factor is reported as needing
+ * an upgrade, so it is rehashed on the user's next successful login; one made at a higher factor
+ * is left alone. Calibration depends on the hardware and on the load at startup, so production
+ * should pin app.security.bcrypt.strength, the same on every instance.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.security.bcrypt.strength:0}")
+    private int configuredStrength;
+
+    @Value("${app.security.bcrypt.min-strength:10}")
+    private int minStrength;
+
+    @Value("${app.security.bcrypt.max-strength:14}")
+    private int maxStrength;
+
+    @Value("${app.security.bcrypt.target-latency:250ms}")
+    private Duration targetLatency;
+
+    @Value("${app.security.password-hashing.threads:0}")
+    private int threads;
+
+    @Value("${app.security.password-hashing.queue-capacity:50}")
+    private int queueCapacity;
+
+    private BCryptPasswordEncoder encoder;
+    private int strength;
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        strength = configuredStrength > 0 ? configuredStrength : calibrate();
+        encoder = new BCryptPasswordEncoder(strength);
+
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hashing-"));
+        executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "passwordHashing");
+        log.info("Password hashing uses bcrypt strength {} with a pool of {}", strength, poolSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> encoder.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // $2a$10$...: the two digits after the version are the strength the hash was made with
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(6) != '$') {
+            return false;
+        }
+        try {
+            // Never downwards: a slow start or a smaller instance must not weaken stored hashes
+            return Integer.parseInt(encodedPassword.substring(4, 6)) < strength;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException ex) {
+            throw new ServiceUnavailableException("Too many sign-ins in progress, please try again shortly");
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    // Each step up doubles the work, so one timed hash at the minimum is enough to pick the factor
+    private int calibrate() {
+        new BCryptPasswordEncoder(4).encode("warm-up");
+        long start = System.nanoTime();
+        new BCryptPasswordEncoder(minStrength).encode("calibration");
+        long elapsed = System.nanoTime() - start;
+
+        // Never below the floor, however slow the machine or busy the startup
+        int calibrated = Math.max(minStrength, 4);
+        while (calibrated < maxStrength && elapsed * 2 <= targetLatency.toNanos()) {
+            elapsed *= 2;
+            calibrated++;
+        }
+        log.info("Calibrated bcrypt strength {}, about {} ms per hash", calibrated,
+                TimeUnit.NANOSECONDS.toMillis(elapsed));
+        return calibrated;
+    }
+}
@@ -0,0 +1,41 @@
+package com.shoeapp.security;
+
+import com.shoeapp.entity.User;
+import com.shoeapp.exception.AuthenticationException;
+import com.shoeapp.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the user of the current request from the {@link UserPrincipal} the JWT filter put in
+ * the security context. The context is bound to the request, so this is effectively request scoped
+ * and doesn't query the database.
+ */
+@Component
+@RequiredArgsConstructor
+public class CurrentUserResolver {
+
+    private final UserRepository userRepository;
+
+    public UserPrincipal getCurrentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal principal)) {
+            throw new AuthenticationException("Not authenticated");
+        }
+        return principal;
+    }
+
+    public Long getCurrentUserId() {
+        return getCurrentPrincipal().getId();
+    }
+
+    /**
+     * Returns an uninitialized reference to the current user, good for setting associations and
+     * binding query parameters. Reading any field other than the id loads the row.
+     */
+    public User getCurrentUser() {
+        return userRepository.getReferenceById(getCurrentUserId());
+    }
+}
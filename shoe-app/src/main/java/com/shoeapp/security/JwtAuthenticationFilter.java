@@ -1,10 +1,12 @@
 package com.shoeapp.security;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -17,39 +19,74 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final UserDetailsServiceImpl userDetailsService;
+    private final JwtPrincipalCache principalCache;
+
+    // Time spent authenticating a bearer token, by whether the principal came from the cache
+    private final Timer cachedTimer;
+    private final Timer verifiedTimer;
+    private final Timer invalidTimer;
+
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, UserDetailsServiceImpl userDetailsService,
+                                   JwtPrincipalCache principalCache, MeterRegistry meterRegistry) {
+        this.tokenProvider = tokenProvider;
+        this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
+        this.cachedTimer = authenticationTimer(meterRegistry, "cached");
+        this.verifiedTimer = authenticationTimer(meterRegistry, "verified");
+        this.invalidTimer = authenticationTimer(meterRegistry, "invalid");
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
+        Timer.Sample sample = null;
+        Timer timer = invalidTimer;
         try {
             String jwt = getJwtFromRequest(request);
 
             if (StringUtils.hasText(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
+                sample = Timer.start();
+                timer = cachedTimer;
+                UserDetails userDetails = principalCache.get(jwt);
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                if (userDetails == null) {
+                    timer = invalidTimer;
+                    // Signature and expiry are checked here; an invalid token throws
+                    Claims claims = tokenProvider.parseToken(jwt);
+                    userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+                    principalCache.put(jwt, userDetails, claims.getExpiration());
+                    timer = verifiedTimer;
+                }
 
-                if (tokenProvider.validateToken(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities());
-                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                        userDetails, null, userDetails.getAuthorities());
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                }
+                SecurityContextHolder.getContext().setAuthentication(authentication);
             }
         } catch (Exception ex) {
+            timer = invalidTimer;
             log.error("Could not set user authentication in security context", ex);
         }
+        if (sample != null) {
+            sample.stop(timer);
+        }
 
         filterChain.doFilter(request, response);
     }
 
+    private static Timer authenticationTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("jwt.authentication")
+                .description("Time spent authenticating a bearer token")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
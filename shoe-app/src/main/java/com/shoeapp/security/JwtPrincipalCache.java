@@ -0,0 +1,81 @@
+package com.shoeapp.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers the principal behind each verified token until the token's own expiry, so repeat
+ * requests skip both signature verification and the user lookup.
+ */
+@Component
+@Slf4j
+public class JwtPrincipalCache {
+
+    @Value("${app.jwt.principal-cache.max-size:10000}")
+    private long maxSize;
+
+    private Cache<String, CachedPrincipal> cache;
+
+    @PostConstruct
+    public void init() {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, CachedPrincipal>() {
+                    @Override
+                    public long expireAfterCreate(String token, CachedPrincipal principal, long currentTime) {
+                        long remainingMillis = principal.expiresAt() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, CachedPrincipal principal, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(token, principal, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, CachedPrincipal principal, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public UserDetails get(String token) {
+        CachedPrincipal principal = cache.getIfPresent(token);
+        if (principal == null || principal.expiresAt() <= System.currentTimeMillis()) {
+            return null;
+        }
+        return principal.userDetails();
+    }
+
+    public void put(String token, UserDetails userDetails, Date expiration) {
+        cache.put(token, new CachedPrincipal(userDetails, expiration.getTime()));
+    }
+
+    /**
+     * Drops every cached token of the given user. Call this whenever a user's role or password
+     * changes, or the user is removed, so the next request reloads the user from the database.
+     */
+    public void invalidateUser(String username) {
+        cache.asMap().values().removeIf(principal -> principal.userDetails().getUsername().equals(username));
+        log.info("Invalidated cached authentication for user: {}", username);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private record CachedPrincipal(UserDetails userDetails, long expiresAt) {
+    }
+}
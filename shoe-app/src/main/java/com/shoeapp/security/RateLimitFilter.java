@@ -0,0 +1,313 @@
+package com.shoeapp.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shoeapp.exception.ErrorDetails;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Throttles requests with token buckets before any authentication work is done, so a burst of
+ * logins or scraping can't tie up the CPU with password hashing and serialization. Each route
+ * has its own limits, written as capacity/period (e.g. 20/1m; 0 turns a limit off), and a
+ * request must get a token from every limit of the first route it matches:
+ * <ul>
+ * <li>login: per client IP and per username, against password guessing on one account</li>
+ * <li>availability: username and email checks made while a signup form is typed, per client IP</li>
+ * <li>auth: the other /api/auth endpoints, per client IP</li>
+ * <li>catalog and api: per user for a known bearer token, otherwise per client IP</li>
+ * </ul>
+ * A rejected request gets a 429 with Retry-After. Buckets are dropped after a period without
+ * use, at which point they would be full anyway, so memory follows the number of active clients.
+ * Behind a proxy, set server.forward-headers-strategy so the client IP is the real one.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final int MAX_LOGIN_BODY = 4096;
+
+    private final JwtPrincipalCache principalCache;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.rate-limit.max-buckets:100000}")
+    private long maxBuckets;
+
+    @Value("${app.rate-limit.login.per-ip:20/1m}")
+    private String loginPerIp;
+
+    @Value("${app.rate-limit.login.per-username:5/1m}")
+    private String loginPerUsername;
+
+    @Value("${app.rate-limit.availability.per-ip:60/1m}")
+    private String availabilityPerIp;
+
+    @Value("${app.rate-limit.auth.per-ip:20/1m}")
+    private String authPerIp;
+
+    @Value("${app.rate-limit.catalog.per-client:300/1m}")
+    private String catalogPerClient;
+
+    @Value("${app.rate-limit.api.per-client:600/1m}")
+    private String apiPerClient;
+
+    private List<Route> routes;
+
+    @PostConstruct
+    public void init() {
+        routes = List.of(
+                route("login", request -> HttpMethod.POST.matches(request.getMethod())
+                                && path(request).equals("/api/auth/login"),
+                        "ip", loginPerIp, "username", loginPerUsername),
+                route("availability", request -> path(request).equals("/api/auth/check-availability"),
+                        "ip", availabilityPerIp),
+                route("auth", request -> path(request).startsWith("/api/auth/"), "ip", authPerIp),
+                route("catalog", request -> path(request).startsWith("/api/shoes"), "client", catalogPerClient),
+                route("api", request -> path(request).startsWith("/api/"), "client", apiPerClient));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Route route = route(request);
+        if (route == null || route.limits().isEmpty()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (route.needsUsername()) {
+            request = new CachedBodyRequest(request, request.getInputStream().readNBytes(MAX_LOGIN_BODY + 1));
+        }
+
+        long now = System.nanoTime();
+        for (Limit limit : route.limits()) {
+            String key = key(limit.keyType(), request);
+            if (key == null) {
+                continue;
+            }
+            long waitNanos = limit.buckets().get(key, k -> new TokenBucket(limit.capacity(), limit.periodNanos(), now))
+                    .tryConsume(now);
+            if (waitNanos > 0) {
+                limit.rejections().increment();
+                log.warn("Rate limit {}/{} exceeded by {}", route.name(), limit.keyType(), key);
+                reject(request, response, waitNanos);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private Route route(HttpServletRequest request) {
+        for (Route route : routes) {
+            if (route.matcher().test(request)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private String key(String keyType, HttpServletRequest request) {
+        switch (keyType) {
+            case "ip":
+                return request.getRemoteAddr();
+            case "username":
+                String username = loginUsername((CachedBodyRequest) request);
+                return username != null ? username.toLowerCase(Locale.ROOT) : null;
+            default:
+                // Only tokens that were already verified once count as a user; anything else is
+                // treated as anonymous, so forged tokens can't spend someone else's tokens
+                String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+                if (StringUtils.hasText(header) && header.startsWith("Bearer ")) {
+                    UserDetails userDetails = principalCache.get(header.substring(7));
+                    if (userDetails instanceof UserPrincipal principal) {
+                        return "user:" + principal.getId();
+                    }
+                }
+                return "ip:" + request.getRemoteAddr();
+        }
+    }
+
+    private String loginUsername(CachedBodyRequest request) {
+        if (request.body.length > MAX_LOGIN_BODY) {
+            return null;
+        }
+        try {
+            JsonNode username = objectMapper.readTree(request.body).get("username");
+            return username != null && username.isTextual() ? username.asText() : null;
+        } catch (IOException ex) {
+            // The controller rejects the body itself
+            return null;
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Too Many Requests",
+                "Rate limit exceeded, retry in " + retryAfterSeconds + " seconds",
+                "uri=" + request.getRequestURI()
+        );
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorDetails);
+    }
+
+    private Route route(String name, Predicate<HttpServletRequest> matcher, String... limits) {
+        List<Limit> enabledLimits = new ArrayList<>();
+        for (int i = 0; i < limits.length; i += 2) {
+            Limit limit = limit(name, limits[i], limits[i + 1]);
+            if (limit != null) {
+                enabledLimits.add(limit);
+            }
+        }
+        return new Route(name, matcher, List.copyOf(enabledLimits));
+    }
+
+    private Limit limit(String route, String keyType, String spec) {
+        String[] parts = spec.trim().split("/");
+        int capacity = Integer.parseInt(parts[0].trim());
+        if (capacity <= 0) {
+            return null;
+        }
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Rate limit must be written as capacity/period: " + spec);
+        }
+        Duration period = DurationStyle.detectAndParse(parts[1].trim());
+
+        Cache<String, TokenBucket> buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(period)
+                .build();
+        Gauge.builder("rate.limit.buckets", buckets, Cache::estimatedSize)
+                .description("Token buckets currently held by the rate limiter")
+                .tag("route", route)
+                .tag("key", keyType)
+                .register(meterRegistry);
+        Counter rejections = Counter.builder("rate.limit.rejections")
+                .description("Requests rejected by the rate limiter")
+                .tag("route", route)
+                .tag("key", keyType)
+                .register(meterRegistry);
+        return new Limit(keyType, capacity, period.toNanos(), buckets, rejections);
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private record Route(String name, Predicate<HttpServletRequest> matcher, List<Limit> limits) {
+
+        boolean needsUsername() {
+            return limits.stream().anyMatch(limit -> limit.keyType().equals("username"));
+        }
+    }
+
+    private record Limit(String keyType, int capacity, long periodNanos, Cache<String, TokenBucket> buckets,
+                         Counter rejections) {
+    }
+
+    /**
+     * Replays the part of the body the filter has already read, so the controller can still bind it.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        // The head of the body; anything past it is still unread in the request
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            ServletInputStream rest = super.getInputStream();
+            ByteArrayInputStream head = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() throws IOException {
+                    int b = head.read();
+                    return b != -1 ? b : rest.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int read = head.read(buffer, offset, length);
+                    return read > 0 ? read : rest.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return head.available() == 0 && rest.isFinished();
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
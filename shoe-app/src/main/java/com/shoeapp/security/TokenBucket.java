@@ -0,0 +1,41 @@
+package com.shoeapp.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket of the given capacity that refills completely once per period, kept as a single
+ * timestamp: the time at which the bucket would be full again (the generic cell rate algorithm).
+ * Taking a token moves that time forward by one refill interval with a compare-and-set, so
+ * concurrent requests never block each other.
+ */
+class TokenBucket {
+
+    private final long intervalNanos;
+    private final long periodNanos;
+    private final AtomicLong fullAt;
+
+    TokenBucket(int capacity, long periodNanos, long now) {
+        this.intervalNanos = Math.max(1, periodNanos / capacity);
+        this.periodNanos = intervalNanos * capacity;
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until the next one is
+     */
+    long tryConsume(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long excess = next - now - periodNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.shoeapp.security;
+
+import com.shoeapp.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Authenticated principal carrying the user's id and role, so code downstream of the JWT filter
+ * (services, {@code @PreAuthorize} expressions via {@code authentication.principal.id}) doesn't
+ * need to look the user up again.
+ */
+@Getter
+@AllArgsConstructor
+public class UserPrincipal implements UserDetails {
+
+    private final Long id;
+    private final String username;
+    private final String password;
+    private final String role;
+
+    public static UserPrincipal create(User user) {
+        return new UserPrincipal(user.getId(), user.getUsername(), user.getPassword(), user.getRole());
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return Collections.singletonList(new SimpleGrantedAuthority(role));
+    }
+}
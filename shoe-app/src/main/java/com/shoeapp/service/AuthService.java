@@ -2,10 +2,12 @@ package com.shoeapp.service;
 
 import com.shoeapp.dto.request.LoginRequest;
 import com.shoeapp.dto.request.SignupRequest;
+import com.shoeapp.dto.response.AvailabilityResponse;
 import com.shoeapp.dto.response.JwtResponse;
 import com.shoeapp.dto.response.SignupResponse;
 
 public interface AuthService {
     public JwtResponse login(LoginRequest loginRequest);
     public SignupResponse register(SignupRequest signupRequest);
+    public AvailabilityResponse checkAvailability(String username, String email);
 }
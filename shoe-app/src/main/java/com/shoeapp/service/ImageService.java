@@ -0,0 +1,18 @@
+package com.shoeapp.service;
+
+import com.shoeapp.entity.Shoe;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.file.Path;
+
+public interface ImageService {
+
+    public String storeImage(MultipartFile imageFile);
+    public String storeDataUri(String dataUri);
+    public String resolveImageKey(String imageUrl);
+    public Path getImagePath(String imageKey);
+    public String getImageUrl(String imageKey);
+    public String getImageUrl(Shoe shoe);
+    public void applyImage(Shoe shoe, String imageUrl);
+
+}
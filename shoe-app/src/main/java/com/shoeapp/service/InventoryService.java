@@ -0,0 +1,11 @@
+package com.shoeapp.service;
+
+import com.shoeapp.entity.CartItem;
+
+import java.util.Collection;
+
+public interface InventoryService {
+
+    public void reserveStock(Collection<CartItem> items);
+
+}
@@ -0,0 +1,48 @@
+package com.shoeapp.service;
+
+import com.shoeapp.exception.BadRequestException;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface OrderExportService {
+
+    /**
+     * Writes every order with its items and shipping details to {@code out}, oldest first.
+     * The stream is flushed but not closed.
+     */
+    public void exportOrders(Format format, OutputStream out) throws IOException;
+
+    enum Format {
+        /** One order per line, in the same shape as the order API. */
+        NDJSON("ndjson", MediaType.parseMediaType("application/x-ndjson")),
+        /** One line per order item, with the order's columns repeated. */
+        CSV("csv", MediaType.parseMediaType("text/csv;charset=UTF-8"));
+
+        private final String extension;
+        private final MediaType mediaType;
+
+        Format(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public static Format from(String value) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new BadRequestException("Invalid export format: " + value + ". Use ndjson or csv");
+        }
+    }
+}
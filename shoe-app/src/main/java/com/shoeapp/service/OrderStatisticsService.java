@@ -0,0 +1,15 @@
+package com.shoeapp.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+public interface OrderStatisticsService {
+
+    public void recordOrderPlaced(LocalDate orderDate, String status, BigDecimal amount);
+    public void recordStatusChange(LocalDate orderDate, String fromStatus, String toStatus, BigDecimal amount);
+    public Map<String, Object> getOrderStatistics(String timeframe);
+    public void rebuild();
+    public void rebuildIfEmpty();
+
+}
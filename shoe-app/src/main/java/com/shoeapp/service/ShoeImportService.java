@@ -0,0 +1,51 @@
+package com.shoeapp.service;
+
+import com.shoeapp.dto.response.ShoeImportJobResponse;
+import com.shoeapp.exception.BadRequestException;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ShoeImportService {
+
+    /**
+     * Copies {@code in} to a temporary file and imports it in the background. Rows are matched to
+     * existing shoes by brand, name, size and color: a match is updated, anything else is created.
+     * Only one import runs at a time.
+     */
+    public ShoeImportJobResponse startImport(Format format, InputStream in) throws IOException;
+    public ShoeImportJobResponse getJob(String jobId);
+
+    enum Format {
+        /** A header row naming the {@code ShoeRequest} fields, then one shoe per line. */
+        CSV("csv", MediaType.parseMediaType("text/csv")),
+        /** One {@code ShoeRequest} JSON object per line. */
+        NDJSON("ndjson", MediaType.parseMediaType("application/x-ndjson"));
+
+        private final String extension;
+        private final MediaType mediaType;
+
+        Format(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public static Format from(MediaType contentType) {
+            for (Format format : values()) {
+                if (format.mediaType.isCompatibleWith(contentType)) {
+                    return format;
+                }
+            }
+            throw new BadRequestException("Invalid import content type: " + contentType + ". Use text/csv or application/x-ndjson");
+        }
+    }
+}
@@ -1,16 +1,28 @@
 package com.shoeapp.service;
 
 import com.shoeapp.dto.request.ShoeRequest;
+import com.shoeapp.dto.request.ShoeSearchRequest;
+import com.shoeapp.dto.response.ShoePageResponse;
 import com.shoeapp.dto.response.ShoeResponse;
+import com.shoeapp.dto.response.ShoeSearchResponse;
+import com.shoeapp.dto.response.ShoeSummaryResponse;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface ShoeService {
 
     public List<ShoeResponse> getAllShoes();
+    public ShoePageResponse getShoesPage(String cursor, Integer size, String sort);
+    public ShoeSearchResponse searchShoes(ShoeSearchRequest searchRequest);
     public ShoeResponse getShoeById(Long id);
+    public Map<Long, ShoeResponse> getShoesByIds(Collection<Long> ids);
     public List<ShoeResponse> getShoesByBrand(String brand);
     public List<ShoeResponse> getShoesByCategory(String category);
+    public List<ShoeSummaryResponse> getShoeSummaries();
+    public List<ShoeSummaryResponse> getShoeSummariesByBrand(String brand);
+    public List<ShoeSummaryResponse> getShoeSummariesByCategory(String category);
     public ShoeResponse createShoe(ShoeRequest shoeRequest);
     public ShoeResponse updateShoe(Long id, ShoeRequest shoeRequest);
     public void deleteShoe(Long id);
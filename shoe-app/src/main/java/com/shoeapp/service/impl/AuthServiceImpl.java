@@ -2,16 +2,22 @@ package com.shoeapp.service.impl;
 
 import com.shoeapp.dto.request.LoginRequest;
 import com.shoeapp.dto.request.SignupRequest;
+import com.shoeapp.dto.response.AvailabilityResponse;
 import com.shoeapp.dto.response.JwtResponse;
 import com.shoeapp.dto.response.SignupResponse;
 import com.shoeapp.entity.User;
 import com.shoeapp.exception.BadRequestException;
 import com.shoeapp.repository.UserRepository;
+import com.shoeapp.security.AccountBloomFilter;
 import com.shoeapp.security.JwtTokenProvider;
 import com.shoeapp.service.AuthService;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -19,6 +25,10 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.Locale;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -29,6 +39,8 @@ public class AuthServiceImpl implements AuthService {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
+    private final AccountBloomFilter accountBloomFilter;
+    private final MeterRegistry meterRegistry;
 
     @Transactional
     public JwtResponse login(LoginRequest loginRequest) {
@@ -59,14 +71,6 @@ public class AuthServiceImpl implements AuthService {
 
     @Transactional
     public SignupResponse register(SignupRequest signupRequest) {
-        if (userRepository.existsByUsername(signupRequest.getUsername())) {
-            throw new BadRequestException("Username is already taken");
-        }
-
-        if (userRepository.existsByEmail(signupRequest.getEmail())) {
-            throw new BadRequestException("Email is already in use");
-        }
-
         // Set default role if not provided
         String role = signupRequest.getRole();
         if (role == null || role.isEmpty()) {
@@ -86,10 +90,13 @@ public class AuthServiceImpl implements AuthService {
                 .role(role)
                 .build();
 
-        userRepository.save(user);
-        log.info("User {} successfully registered", user.getUsername());
-
-        userRepository.save(user);
+        // A single insert: the unique constraints catch a taken username or email
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException ex) {
+            throw duplicateAccount(ex);
+        }
+        accountBloomFilter.add(user.getUsername(), user.getEmail());
         log.info("User {} successfully registered with role: {}", user.getUsername(), user.getRole());
 
         return SignupResponse.builder()
@@ -99,4 +106,45 @@ public class AuthServiceImpl implements AuthService {
                 .role(user.getRole())
                 .build();
     }
+
+    public AvailabilityResponse checkAvailability(String username, String email) {
+        boolean checkUsername = StringUtils.hasText(username);
+        boolean checkEmail = StringUtils.hasText(email);
+        if (!checkUsername && !checkEmail) {
+            throw new BadRequestException("Username or email is required");
+        }
+
+        return AvailabilityResponse.builder()
+                .usernameAvailable(checkUsername ? !isTaken(accountBloomFilter.mightHaveUsername(username),
+                        () -> userRepository.existsByUsername(username)) : null)
+                .emailAvailable(checkEmail ? !isTaken(accountBloomFilter.mightHaveEmail(email),
+                        () -> userRepository.existsByEmail(email)) : null)
+                .build();
+    }
+
+    // Only a possible match in the filter costs a query
+    private boolean isTaken(boolean mightBeTaken, Supplier<Boolean> lookup) {
+        if (!mightBeTaken) {
+            meterRegistry.counter("auth.availability.checks", "answer", "filter").increment();
+            return false;
+        }
+        meterRegistry.counter("auth.availability.checks", "answer", "database").increment();
+        return lookup.get();
+    }
+
+    private static RuntimeException duplicateAccount(DataIntegrityViolationException ex) {
+        String violated = ex.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                ? violation.getConstraintName()
+                : String.valueOf(NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+        violated = violated.toLowerCase(Locale.ROOT);
+
+        if (violated.contains(User.USERNAME_CONSTRAINT)) {
+            return new BadRequestException("Username is already taken");
+        }
+        if (violated.contains(User.EMAIL_CONSTRAINT)) {
+            return new BadRequestException("Email is already in use");
+        }
+        return ex;
+    }
 }
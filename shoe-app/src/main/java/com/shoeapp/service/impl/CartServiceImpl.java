@@ -1,44 +1,53 @@
 package com.shoeapp.service.impl;
 
+import com.shoeapp.cart.ActiveCart;
+import com.shoeapp.cart.CartLine;
+import com.shoeapp.cart.CartStore;
 import com.shoeapp.dto.request.CartItemRequest;
 import com.shoeapp.dto.response.CartItemResponse;
 import com.shoeapp.dto.response.CartResponse;
-import com.shoeapp.entity.CartItem;
-import com.shoeapp.entity.Shoe;
-import com.shoeapp.entity.User;
+import com.shoeapp.dto.response.ShoeResponse;
 import com.shoeapp.exception.BadRequestException;
 import com.shoeapp.exception.ResourceNotFoundException;
-import com.shoeapp.repository.CartItemRepository;
-import com.shoeapp.repository.ShoeRepository;
-import com.shoeapp.repository.UserRepository;
+import com.shoeapp.security.CurrentUserResolver;
+import com.shoeapp.security.UserPrincipal;
 import com.shoeapp.service.CartService;
+import com.shoeapp.service.ShoeService;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+/**
+ * Cart operations against the in-memory {@link CartStore}; cart_items is written behind by the
+ * store. The user comes from the request's principal and shoe details from the shoe cache, so a
+ * warm cart request doesn't touch the database at all.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Observed(name = "shoeapp.service")
 public class CartServiceImpl implements CartService {
 
-    private final CartItemRepository cartItemRepository;
-    private final UserRepository userRepository;
-    private final ShoeRepository shoeRepository;
+    private final CartStore cartStore;
+    private final CurrentUserResolver currentUserResolver;
+    private final ShoeService shoeService;
 
-    @Transactional(readOnly = true)
     public CartResponse getCart() {
-        User user = getCurrentUser();
-        List<CartItem> cartItems = cartItemRepository.findByUserAndOrderIsNull(user);
-
-        List<CartItemResponse> cartItemResponses = cartItems.stream()
-                .map(this::mapToCartItemResponse)
+        UserPrincipal user = currentUserResolver.getCurrentPrincipal();
+        List<CartLine> lines = cartStore.read(user.getId(), ActiveCart::getLines);
+        Map<Long, ShoeResponse> shoes = shoeService.getShoesByIds(
+                lines.stream().map(CartLine::shoeId).collect(Collectors.toList()));
+
+        // Lines whose shoe has been deleted are skipped
+        List<CartItemResponse> cartItemResponses = lines.stream()
+                .filter(line -> shoes.containsKey(line.shoeId()))
+                .map(line -> mapToCartItemResponse(line, shoes.get(line.shoeId())))
                 .collect(Collectors.toList());
 
         BigDecimal totalPrice = cartItemResponses.stream()
@@ -56,97 +65,74 @@ public class CartServiceImpl implements CartService {
                 .build();
     }
 
-    @Transactional
     public CartItemResponse addToCart(CartItemRequest cartItemRequest) {
-        User user = getCurrentUser();
-        Shoe shoe = shoeRepository.findById(cartItemRequest.getShoeId())
-                .orElseThrow(() -> new ResourceNotFoundException("Shoe", "id", cartItemRequest.getShoeId()));
+        UserPrincipal user = currentUserResolver.getCurrentPrincipal();
+        ShoeResponse shoe = shoeService.getShoeById(cartItemRequest.getShoeId());
 
+        // Advisory only: stock is reserved atomically at checkout
         if (shoe.getStock() < cartItemRequest.getQuantity()) {
             throw new BadRequestException("Not enough stock available");
         }
 
-        CartItem cartItem = cartItemRepository
-                .findByUserIdAndShoeIdAndOrderIsNull(user.getId(), shoe.getId())
-                .orElse(null);
-
-        if (cartItem != null) {
-            // Update existing item
-            cartItem.setQuantity(cartItem.getQuantity() + cartItemRequest.getQuantity());
-        } else {
-            // Create new item
-            cartItem = CartItem.builder()
-                    .user(user)
-                    .shoe(shoe)
-                    .quantity(cartItemRequest.getQuantity())
-                    .build();
-        }
-
-        CartItem savedCartItem = cartItemRepository.save(cartItem);
+        CartLine line = cartStore.update(user.getId(),
+                cart -> cart.add(shoe.getId(), cartItemRequest.getQuantity()));
         log.info("Added/Updated cart item for user: {}, shoe: {}", user.getUsername(), shoe.getName());
 
-        return mapToCartItemResponse(savedCartItem);
+        return mapToCartItemResponse(line, shoe);
     }
 
-    @Transactional
     public CartItemResponse updateCartItem(Long itemId, CartItemRequest cartItemRequest) {
-        User user = getCurrentUser();
-        CartItem cartItem = cartItemRepository.findById(itemId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart Item", "id", itemId));
-
-        if (!cartItem.getUser().getId().equals(user.getId())) {
-            throw new BadRequestException("You don't have permission to update this cart item");
-        }
-
-        if (cartItem.getOrder() != null) {
-            throw new BadRequestException("Cannot update item in completed order");
-        }
+        UserPrincipal user = currentUserResolver.getCurrentPrincipal();
+        Long shoeId = findLine(user, itemId).shoeId();
+        ShoeResponse shoe = shoeService.getShoeById(shoeId);
 
-        Shoe shoe = cartItem.getShoe();
         if (shoe.getStock() < cartItemRequest.getQuantity()) {
             throw new BadRequestException("Not enough stock available");
         }
 
-        cartItem.setQuantity(cartItemRequest.getQuantity());
-        CartItem updatedCartItem = cartItemRepository.save(cartItem);
+        CartLine line = cartStore.update(user.getId(), cart -> {
+            if (cart.getQuantity(shoeId) == 0) {
+                throw new ResourceNotFoundException("Cart Item", "id", itemId);
+            }
+            return cart.setQuantity(shoeId, cartItemRequest.getQuantity());
+        });
         log.info("Updated cart item quantity for user: {}, shoe: {}", user.getUsername(), shoe.getName());
 
-        return mapToCartItemResponse(updatedCartItem);
+        return mapToCartItemResponse(line, shoe);
     }
 
-    @Transactional
     public void removeFromCart(Long itemId) {
-        User user = getCurrentUser();
-        CartItem cartItem = cartItemRepository.findById(itemId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart Item", "id", itemId));
-
-        if (!cartItem.getUser().getId().equals(user.getId())) {
-            throw new BadRequestException("You don't have permission to remove this cart item");
-        }
-
-        if (cartItem.getOrder() != null) {
-            throw new BadRequestException("Cannot remove item from completed order");
-        }
-
-        cartItemRepository.delete(cartItem);
-        log.info("Removed cart item for user: {}, shoe: {}", user.getUsername(), cartItem.getShoe().getName());
+        UserPrincipal user = currentUserResolver.getCurrentPrincipal();
+        Long shoeId = findLine(user, itemId).shoeId();
+
+        cartStore.update(user.getId(), cart -> {
+            cart.remove(shoeId);
+            return null;
+        });
+        log.info("Removed cart item for user: {}, shoe id: {}", user.getUsername(), shoeId);
     }
 
-    @Transactional
     public void clearCart() {
-        User user = getCurrentUser();
-        List<CartItem> cartItems = cartItemRepository.findByUserAndOrderIsNull(user);
+        UserPrincipal user = currentUserResolver.getCurrentPrincipal();
 
-        cartItemRepository.deleteAll(cartItems);
+        cartStore.update(user.getId(), cart -> {
+            cart.clear();
+            return null;
+        });
         log.info("Cleared cart for user: {}", user.getUsername());
     }
 
-    private CartItemResponse mapToCartItemResponse(CartItem cartItem) {
-        Shoe shoe = cartItem.getShoe();
-        BigDecimal totalPrice = shoe.getPrice().multiply(BigDecimal.valueOf(cartItem.getQuantity()));
+    // Only lines in the caller's own open cart can be found, which also covers the permission check
+    private CartLine findLine(UserPrincipal user, Long itemId) {
+        return cartStore.read(user.getId(), cart -> cart.findLine(itemId))
+                .orElseThrow(() -> new ResourceNotFoundException("Cart Item", "id", itemId));
+    }
+
+    private CartItemResponse mapToCartItemResponse(CartLine line, ShoeResponse shoe) {
+        BigDecimal totalPrice = shoe.getPrice().multiply(BigDecimal.valueOf(line.quantity()));
 
         return CartItemResponse.builder()
-                .id(cartItem.getId())
+                .id(line.id())
                 .shoeId(shoe.getId())
                 .shoeName(shoe.getName())
                 .shoeBrand(shoe.getBrand())
@@ -154,14 +140,8 @@ public class CartServiceImpl implements CartService {
                 .shoeColor(shoe.getColor())
                 .shoePrice(shoe.getPrice())
                 .shoeImageUrl(shoe.getImageUrl())
-                .quantity(cartItem.getQuantity())
+                .quantity(line.quantity())
                 .totalPrice(totalPrice)
                 .build();
     }
-
-    private User getCurrentUser() {
-        UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        return userRepository.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", userDetails.getUsername()));
-    }
 }
@@ -0,0 +1,179 @@
+package com.shoeapp.service.impl;
+
+import com.shoeapp.entity.Shoe;
+import com.shoeapp.exception.BadRequestException;
+import com.shoeapp.exception.ResourceNotFoundException;
+import com.shoeapp.service.ImageService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Filesystem image store. Images are addressed by the SHA-256 of their content, so uploading
+ * the same file twice stores it once and a key can never point at different bytes.
+ */
+@Service
+@Slf4j
+public class ImageServiceImpl implements ImageService {
+
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/jpeg", "jpg",
+            "image/png", "png",
+            "image/gif", "gif",
+            "image/webp", "webp",
+            "image/avif", "avif"
+    );
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("^[0-9a-f]{64}\\.[a-z]{3,4}$");
+
+    @Value("${app.images.dir:uploads/images}")
+    private String imageDir;
+
+    @Value("${app.images.base-url:/api/images}")
+    private String baseUrl;
+
+    private Path root;
+
+    @PostConstruct
+    public void init() throws IOException {
+        this.root = Paths.get(imageDir).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        log.info("Image store initialized at {}", root);
+    }
+
+    public String storeImage(MultipartFile imageFile) {
+        try (InputStream in = imageFile.getInputStream()) {
+            return store(in, imageFile.getContentType());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not store image " + imageFile.getOriginalFilename(), ex);
+        }
+    }
+
+    public String storeDataUri(String dataUri) {
+        // data:image/png;base64,<payload>
+        int comma = dataUri.indexOf(',');
+        if (!dataUri.startsWith("data:") || comma < 0 || !dataUri.substring(0, comma).endsWith(";base64")) {
+            throw new BadRequestException("Invalid image data URI");
+        }
+        String contentType = dataUri.substring(5, comma - ";base64".length());
+
+        byte[] payload = dataUri.substring(comma + 1).getBytes(StandardCharsets.US_ASCII);
+        try (InputStream in = Base64.getMimeDecoder().wrap(new ByteArrayInputStream(payload))) {
+            return store(in, contentType);
+        } catch (IOException ex) {
+            throw new BadRequestException("Invalid image data URI");
+        }
+    }
+
+    public String resolveImageKey(String imageUrl) {
+        if (imageUrl == null || imageUrl.isEmpty()) {
+            return null;
+        }
+        if (imageUrl.startsWith("data:")) {
+            return storeDataUri(imageUrl);
+        }
+        String prefix = baseUrl + "/";
+        if (imageUrl.startsWith(prefix)) {
+            String key = imageUrl.substring(prefix.length());
+            getImagePath(key);
+            return key;
+        }
+        return null;
+    }
+
+    public Path getImagePath(String imageKey) {
+        if (imageKey == null || !KEY_PATTERN.matcher(imageKey).matches()) {
+            throw new ResourceNotFoundException("Image", "key", imageKey);
+        }
+        Path path = pathFor(imageKey);
+        if (!Files.isRegularFile(path)) {
+            throw new ResourceNotFoundException("Image", "key", imageKey);
+        }
+        return path;
+    }
+
+    public String getImageUrl(String imageKey) {
+        return imageKey == null ? null : baseUrl + "/" + imageKey;
+    }
+
+    public String getImageUrl(Shoe shoe) {
+        return shoe.getImageKey() != null ? getImageUrl(shoe.getImageKey()) : shoe.getImageUrl();
+    }
+
+    public void applyImage(Shoe shoe, String imageUrl) {
+        // Inline data URIs and our own image URLs become store keys; anything else is an external URL
+        String imageKey = resolveImageKey(imageUrl);
+        if (imageKey == null && imageUrl != null && imageUrl.length() > 512) {
+            throw new BadRequestException("Image URL must be at most 512 characters");
+        }
+        shoe.setImageKey(imageKey);
+        shoe.setImageUrl(imageKey == null && imageUrl != null && !imageUrl.isEmpty() ? imageUrl : null);
+    }
+
+    private String store(InputStream in, String contentType) throws IOException {
+        String extension = contentType == null ? null : EXTENSIONS.get(contentType.toLowerCase());
+        if (extension == null) {
+            throw new BadRequestException("Unsupported image type: " + contentType);
+        }
+
+        // Stream into a temp file while hashing so the upload is never held in memory
+        MessageDigest digest = sha256();
+        Path temp = Files.createTempFile(root, "upload-", ".tmp");
+        try {
+            try (DigestInputStream digestIn = new DigestInputStream(in, digest)) {
+                Files.copy(digestIn, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            String key = HexFormat.of().formatHex(digest.digest()) + "." + extension;
+            Path target = pathFor(key);
+            if (Files.exists(target)) {
+                log.info("Image {} already stored, skipping duplicate upload", key);
+                return key;
+            }
+
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException ex) {
+                // A concurrent upload of the same content won the race; the bytes are identical
+            }
+            log.info("Stored image {}", key);
+            return key;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Path pathFor(String key) {
+        // Fan out into 256 sub-directories to keep directory listings small
+        return root.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.shoeapp.service.impl;
+
+import com.shoeapp.config.CacheConfig;
+import com.shoeapp.entity.CartItem;
+import com.shoeapp.entity.Shoe;
+import com.shoeapp.exception.BadRequestException;
+import com.shoeapp.service.InventoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reserves stock with conditional UPDATEs ({@code stock >= ?}) instead of read-check-write in Java,
+ * so concurrent checkouts of the same shoe can never oversell it. The UPDATEs bypass the shoe
+ * caches, so the reserved shoes and their listings are evicted once the reservation commits.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryServiceImpl implements InventoryService {
+
+    private static final String RESERVE_SQL =
+            "UPDATE shoes SET stock = stock - ?, updated_at = ? WHERE id = ? AND stock >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheManager cacheManager;
+
+    @Transactional
+    public void reserveStock(Collection<CartItem> items) {
+        // Merge lines per shoe and lock rows in id order so two checkouts can't deadlock each other
+        Map<Long, Integer> quantities = new TreeMap<>();
+        Map<Long, Shoe> shoes = new TreeMap<>();
+        for (CartItem item : items) {
+            quantities.merge(item.getShoe().getId(), item.getQuantity(), Integer::sum);
+            shoes.putIfAbsent(item.getShoe().getId(), item.getShoe());
+        }
+
+        if (quantities.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Long> shoeIds = new ArrayList<>(quantities.keySet());
+        List<Object[]> batchArgs = new ArrayList<>(shoeIds.size());
+        for (Long shoeId : shoeIds) {
+            Integer quantity = quantities.get(shoeId);
+            batchArgs.add(new Object[]{quantity, now, shoeId, quantity});
+        }
+
+        // All lines go to the database in one JDBC batch
+        int[] updateCounts = jdbcTemplate.batchUpdate(RESERVE_SQL, batchArgs);
+
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] == 0) {
+                // Throwing rolls back the whole transaction, including the lines that did succeed
+                Shoe shoe = shoes.get(shoeIds.get(i));
+                throw new BadRequestException("Not enough stock for " + shoe.getName());
+            }
+        }
+
+        // The cache manager is transaction-aware, so these only apply after commit
+        for (Shoe shoe : shoes.values()) {
+            evict(CacheConfig.SHOES, shoe.getId());
+            evict(CacheConfig.SHOES_BY_BRAND, shoe.getBrand());
+            evict(CacheConfig.SHOES_BY_CATEGORY, shoe.getCategory());
+        }
+
+        log.info("Reserved stock for {} shoes", shoeIds.size());
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evict(key);
+        }
+    }
+}
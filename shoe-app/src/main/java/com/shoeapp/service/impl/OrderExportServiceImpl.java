@@ -0,0 +1,285 @@
+package com.shoeapp.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.shoeapp.dto.response.CartItemResponse;
+import com.shoeapp.dto.response.OrderResponse;
+import com.shoeapp.service.OrderExportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams the export straight from a forward-only JDBC cursor: rows are fetched in batches of
+ * app.orders.export.fetch-size and written out as they arrive, and nothing is loaded into the
+ * persistence context. Only the order being written is held in memory, so the export runs in
+ * constant memory however many orders there are.
+ */
+@Service
+@Slf4j
+public class OrderExportServiceImpl implements OrderExportService {
+
+    // Items follow their order, so each order can be written as soon as the next one starts
+    private static final String EXPORT_SQL =
+            "SELECT o.id, o.user_id, u.username, o.order_date, o.total_amount, o.status, " +
+            "o.first_name, o.last_name, o.address, o.city, o.state, o.zip_code, o.country, o.phone_number, " +
+            "o.payment_method, o.order_notes, o.shipping_method, o.tracking_number, o.shipped_date, " +
+            "o.delivered_date, o.created_at, o.updated_at, " +
+            "ol.id AS item_id, ol.quantity, ol.shoe_id, ol.shoe_name, ol.shoe_brand, ol.shoe_size, " +
+            "ol.shoe_color, ol.unit_price AS shoe_price " +
+            "FROM orders o " +
+            "JOIN users u ON u.id = o.user_id " +
+            "LEFT JOIN order_lines ol ON ol.order_id = o.id " +
+            "ORDER BY o.id, ol.id";
+
+    private static final String[] CSV_COLUMNS = {
+            "order_id", "user_id", "username", "order_date", "total_amount", "status",
+            "first_name", "last_name", "address", "city", "state", "zip_code", "country", "phone_number",
+            "payment_method", "order_notes", "shipping_method", "tracking_number", "shipped_date",
+            "delivered_date", "item_id", "shoe_id", "shoe_name", "shoe_brand", "shoe_size", "shoe_color",
+            "shoe_price", "quantity", "item_total"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectWriter orderWriter;
+
+    public OrderExportServiceImpl(DataSource dataSource, ObjectMapper objectMapper,
+                                  @Value("${app.orders.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        // The generator's own buffer decides when bytes go out, not every single order
+        this.orderWriter = objectMapper.writerFor(OrderResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    // A transaction keeps autocommit off, which PostgreSQL needs before it honours the fetch size
+    @Transactional(readOnly = true)
+    public void exportOrders(Format format, OutputStream out) throws IOException {
+        long orders;
+        if (format == Format.NDJSON) {
+            orders = exportNdjson(out);
+        } else {
+            orders = exportCsv(out);
+        }
+        log.info("Exported {} orders as {}", orders, format);
+    }
+
+    private long exportNdjson(OutputStream out) throws IOException {
+        try (JsonGenerator generator = orderWriter.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Lines are ended explicitly, instead of separating root values with a space
+            generator.setRootValueSeparator(null);
+            NdjsonWriter writer = new NdjsonWriter(generator);
+            jdbcTemplate.query(EXPORT_SQL, writer::processRow);
+            writer.finish();
+            return writer.orders;
+        }
+    }
+
+    private long exportCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        writeCsvLine(writer, CSV_COLUMNS);
+        CsvWriter csvWriter = new CsvWriter(writer);
+        jdbcTemplate.query(EXPORT_SQL, csvWriter::processRow);
+        writer.flush();
+        return csvWriter.orders;
+    }
+
+    private static void writeCsvLine(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCsvValue(writer, values[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180: quote values containing a separator, quote or line break, and double the quotes
+    private static void writeCsvValue(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static String format(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime().toString() : null;
+    }
+
+    private static String format(BigDecimal value) {
+        return value != null ? value.toPlainString() : null;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    /**
+     * Collects the rows of one order at a time and writes it as a JSON line when the next order
+     * begins.
+     */
+    private class NdjsonWriter {
+
+        private final JsonGenerator generator;
+        private OrderResponse.OrderResponseBuilder order;
+        private List<CartItemResponse> items;
+        private long orderId = -1;
+        private long orders;
+
+        NdjsonWriter(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        void processRow(ResultSet rs) throws SQLException {
+            long rowOrderId = rs.getLong("id");
+            if (rowOrderId != orderId) {
+                finish();
+                orderId = rowOrderId;
+                items = new ArrayList<>();
+                order = OrderResponse.builder()
+                        .id(rowOrderId)
+                        .userId(rs.getLong("user_id"))
+                        .username(rs.getString("username"))
+                        .orderDate(toLocalDateTime(rs.getTimestamp("order_date")))
+                        .totalAmount(rs.getBigDecimal("total_amount"))
+                        .status(rs.getString("status"))
+                        .firstName(rs.getString("first_name"))
+                        .lastName(rs.getString("last_name"))
+                        .address(rs.getString("address"))
+                        .city(rs.getString("city"))
+                        .state(rs.getString("state"))
+                        .zipCode(rs.getString("zip_code"))
+                        .country(rs.getString("country"))
+                        .phoneNumber(rs.getString("phone_number"))
+                        .paymentMethod(rs.getString("payment_method"))
+                        .orderNotes(rs.getString("order_notes"))
+                        .shippingMethod(rs.getString("shipping_method"))
+                        .trackingNumber(rs.getString("tracking_number"))
+                        .shippedDate(toLocalDateTime(rs.getTimestamp("shipped_date")))
+                        .deliveredDate(toLocalDateTime(rs.getTimestamp("delivered_date")))
+                        .createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+                        .updatedAt(toLocalDateTime(rs.getTimestamp("updated_at")));
+            }
+
+            if (rs.getObject("item_id") != null) {
+                BigDecimal price = rs.getBigDecimal("shoe_price");
+                int quantity = rs.getInt("quantity");
+                items.add(CartItemResponse.builder()
+                        .id(rs.getLong("item_id"))
+                        .shoeId(rs.getLong("shoe_id"))
+                        .shoeName(rs.getString("shoe_name"))
+                        .shoeBrand(rs.getString("shoe_brand"))
+                        .shoeSize(rs.getString("shoe_size"))
+                        .shoeColor(rs.getString("shoe_color"))
+                        .shoePrice(price)
+                        .quantity(quantity)
+                        .totalPrice(price != null ? price.multiply(BigDecimal.valueOf(quantity)) : null)
+                        .build());
+            }
+        }
+
+        void finish() {
+            if (order == null) {
+                return;
+            }
+            try {
+                orderWriter.writeValue(generator, order.items(items).build());
+                generator.writeRaw('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            order = null;
+            orders++;
+        }
+    }
+
+    /**
+     * Writes one CSV line per row; an order without items still gets a line, with the item
+     * columns left empty.
+     */
+    private static class CsvWriter {
+
+        private final Writer writer;
+        private final String[] line = new String[CSV_COLUMNS.length];
+        private long orderId = -1;
+        private long orders;
+
+        CsvWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        void processRow(ResultSet rs) throws SQLException {
+            long rowOrderId = rs.getLong("id");
+            if (rowOrderId != orderId) {
+                orderId = rowOrderId;
+                orders++;
+            }
+            BigDecimal price = rs.getBigDecimal("shoe_price");
+            int quantity = rs.getInt("quantity");
+            boolean hasItem = rs.getObject("item_id") != null;
+
+            int i = 0;
+            line[i++] = String.valueOf(rowOrderId);
+            line[i++] = rs.getString("user_id");
+            line[i++] = rs.getString("username");
+            line[i++] = format(rs.getTimestamp("order_date"));
+            line[i++] = format(rs.getBigDecimal("total_amount"));
+            line[i++] = rs.getString("status");
+            line[i++] = rs.getString("first_name");
+            line[i++] = rs.getString("last_name");
+            line[i++] = rs.getString("address");
+            line[i++] = rs.getString("city");
+            line[i++] = rs.getString("state");
+            line[i++] = rs.getString("zip_code");
+            line[i++] = rs.getString("country");
+            line[i++] = rs.getString("phone_number");
+            line[i++] = rs.getString("payment_method");
+            line[i++] = rs.getString("order_notes");
+            line[i++] = rs.getString("shipping_method");
+            line[i++] = rs.getString("tracking_number");
+            line[i++] = format(rs.getTimestamp("shipped_date"));
+            line[i++] = format(rs.getTimestamp("delivered_date"));
+            line[i++] = rs.getString("item_id");
+            line[i++] = rs.getString("shoe_id");
+            line[i++] = rs.getString("shoe_name");
+            line[i++] = rs.getString("shoe_brand");
+            line[i++] = rs.getString("shoe_size");
+            line[i++] = rs.getString("shoe_color");
+            line[i++] = format(price);
+            line[i++] = hasItem ? String.valueOf(quantity) : null;
+            line[i] = hasItem && price != null ? format(price.multiply(BigDecimal.valueOf(quantity))) : null;
+
+            try {
+                writeCsvLine(writer, line);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+}
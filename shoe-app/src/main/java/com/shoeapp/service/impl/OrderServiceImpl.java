@@ -1,25 +1,33 @@
 package com.shoeapp.service.impl;
 
+import com.shoeapp.cart.CartStore;
 import com.shoeapp.dto.request.OrderRequest;
 import com.shoeapp.dto.response.CartItemResponse;
 import com.shoeapp.dto.response.OrderResponse;
 import com.shoeapp.entity.CartItem;
 import com.shoeapp.entity.Order;
+import com.shoeapp.entity.OrderLine;
 import com.shoeapp.entity.Shoe;
 import com.shoeapp.entity.User;
+import com.shoeapp.event.OrderEvent;
 import com.shoeapp.exception.BadRequestException;
 import com.shoeapp.exception.ResourceNotFoundException;
+import com.shoeapp.outbox.OutboxPublisher;
 import com.shoeapp.repository.CartItemRepository;
 import com.shoeapp.repository.OrderRepository;
-import com.shoeapp.repository.ShoeRepository;
-import com.shoeapp.repository.UserRepository;
+import com.shoeapp.security.CurrentUserResolver;
+import com.shoeapp.security.UserPrincipal;
+import com.shoeapp.service.ImageService;
+import com.shoeapp.service.InventoryService;
 import com.shoeapp.service.OrderService;
+import com.shoeapp.service.OrderStatisticsService;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.hibernate.Hibernate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -29,17 +37,23 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Observed(name = "shoeapp.service")
 public class OrderServiceImpl implements OrderService {
 
     private final OrderRepository orderRepository;
     private final CartItemRepository cartItemRepository;
-    private final UserRepository userRepository;
-    private final ShoeRepository shoeRepository;
+    private final CurrentUserResolver currentUserResolver;
+    private final ImageService imageService;
+    private final InventoryService inventoryService;
+    private final OrderStatisticsService orderStatisticsService;
+    private final OutboxPublisher outboxPublisher;
+    private final CartStore cartStore;
+    private final TransactionTemplate transactionTemplate;
 
     @Transactional(readOnly = true)
     public List<OrderResponse> getUserOrders() {
-        User user = getCurrentUser();
-        List<Order> orders = orderRepository.findByUserOrderByOrderDateDesc(user);
+        Long userId = currentUserResolver.getCurrentUserId();
+        List<Order> orders = orderRepository.findHistoryByUserId(userId);
 
         return orders.stream()
                 .map(this::mapToOrderResponse)
@@ -48,11 +62,11 @@ public class OrderServiceImpl implements OrderService {
 
     @Transactional(readOnly = true)
     public OrderResponse getOrderById(Long id) {
-        User user = getCurrentUser();
-        Order order = orderRepository.findById(id)
+        Long userId = currentUserResolver.getCurrentUserId();
+        Order order = orderRepository.findWithLinesById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
 
-        if (!order.getUser().getId().equals(user.getId())) {
+        if (!order.getUser().getId().equals(userId)) {
             throw new BadRequestException("You don't have permission to view this order");
         }
 
@@ -101,14 +115,19 @@ public class OrderServiceImpl implements OrderService {
             cartItemRepository.save(item);
         }
 
-        log.info("Created new order for user: {}, total amount: {}", user.getUsername(), totalAmount);
+        log.info("Created new order for user id: {}, total amount: {}", user.getId(), totalAmount);
 
         return mapToOrderResponse(savedOrder);
     }*/
 
 
-    @Transactional
     public OrderResponse createOrder(OrderRequest orderRequest, User user) {
+        // The in-memory cart is flushed first and stays locked until the order transaction ends
+        return cartStore.checkout(user.getId(),
+                () -> transactionTemplate.execute(status -> placeOrder(orderRequest, user)));
+    }
+
+    private OrderResponse placeOrder(OrderRequest orderRequest, User user) {
         List<CartItem> cartItems = cartItemRepository.findByUserAndOrderIsNull(user);
 
         if (cartItems.isEmpty()) {
@@ -120,18 +139,11 @@ public class OrderServiceImpl implements OrderService {
         for (CartItem item : cartItems) {
             BigDecimal itemPrice = item.getShoe().getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
             totalAmount = totalAmount.add(itemPrice);
-
-            // Check if there's enough stock
-            Shoe shoe = item.getShoe();
-            if (shoe.getStock() < item.getQuantity()) {
-                throw new BadRequestException("Not enough stock for " + shoe.getName());
-            }
-
-            // Update stock
-            shoe.setStock(shoe.getStock() - item.getQuantity());
-            shoeRepository.save(shoe);
         }
 
+        // Atomically decrement stock for every line; fails the whole order if any shoe runs out
+        inventoryService.reserveStock(cartItems);
+
         // Create order with shipping details
         Order order = Order.builder()
                 .user(user)
@@ -149,47 +161,21 @@ public class OrderServiceImpl implements OrderService {
                 .paymentMethod(orderRequest.getPaymentMethod())
                 .orderNotes(orderRequest.getOrderNotes())
                 .shippingMethod(orderRequest.getShippingMethod())
-                // new field here
-                .items(new HashSet<>(cartItems))  // Initialize items here
                 .build();
+        order.setLines(cartItems.stream()
+                .map(item -> toOrderLine(order, item))
+                .collect(Collectors.toList()));
 
-       /* Order savedOrder = orderRepository.save(order);
-
-       *//* // Assign order to cart items
-        for (CartItem item : cartItems) {
-            item.setOrder(savedOrder);
-            cartItemRepository.save(item);
-        }*//*
-
-        // Assign order to cart items and update the order's items collection
-        Set<CartItem> orderItems = new HashSet<>();
-        for (CartItem item : cartItems) {
-            item.setOrder(savedOrder);
-            CartItem savedItem = cartItemRepository.save(item);
-            orderItems.add(savedItem);
-        }
-
-        // Update the order's items collection
-        savedOrder.setItems(orderItems);
-        savedOrder = orderRepository.save(savedOrder);
-*/
-
-
-        // Assign order to cart items
-        for (CartItem item : cartItems) {
-            item.setOrder(order);
-        }
-
-        // --------------
-        order.setUser(user);
-        order.setItems(new HashSet<>(cartItems));
-        cartItems.forEach(item -> item.setOrder(order));
-        orderRepository.save(order);
-
-        // Save order (cascades to cart items if configured)
+        // The lines are snapshots, so the cart rows can go. Ids come from pooled sequences, so
+        // nothing is written until the single flush, which batches the inserts and the deletes
         Order savedOrder = orderRepository.save(order);
+        cartItemRepository.deleteAll(cartItems);
+        orderRepository.flush();
+
+        // Consumers such as the statistics rollup run after commit, off the checkout path
+        outboxPublisher.publish(OrderEvent.PLACED, savedOrder.getId(), OrderEvent.of(savedOrder, null));
 
-        log.info("Created new order for user: {}, total amount: {}", user.getUsername(), totalAmount);
+        log.info("Created new order for user id: {}, total amount: {}", user.getId(), totalAmount);
 
         return mapToOrderResponse(savedOrder);
     }
@@ -199,11 +185,13 @@ public class OrderServiceImpl implements OrderService {
 
     @Transactional
     public OrderResponse updateOrderStatus(Long id, String status) {
-        Order order = orderRepository.findById(id)
+        Order order = orderRepository.findWithLinesById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
 
+        String previousStatus = order.getStatus();
         order.setStatus(status);
         Order updatedOrder = orderRepository.save(order);
+        publishStatusChange(updatedOrder, previousStatus);
 
         log.info("Updated order status to {} for order id: {}", status, id);
 
@@ -236,7 +224,7 @@ public class OrderServiceImpl implements OrderService {
         return OrderResponse.builder()
                 .id(order.getId())
                 .userId(order.getUser().getId())
-                .username(order.getUser().getUsername())
+                .username(getUsername(order.getUser()))
                 .orderDate(order.getOrderDate())
                 .totalAmount(order.getTotalAmount())
                 .status(order.getStatus())
@@ -249,33 +237,27 @@ public class OrderServiceImpl implements OrderService {
 
 
     // Update the mapping method to include the new fields
-    private OrderResponse mapToOrderResponse(Order order) {
-        List<CartItem> orderItems = order.getItems().stream().collect(Collectors.toList());
-
-        List<CartItemResponse> cartItemResponses = orderItems.stream()
-                .map(item -> {
-                    Shoe shoe = item.getShoe();
-                    BigDecimal totalPrice = shoe.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
-
-                    return CartItemResponse.builder()
-                            .id(item.getId())
-                            .shoeId(shoe.getId())
-                            .shoeName(shoe.getName())
-                            .shoeBrand(shoe.getBrand())
-                            .shoeSize(shoe.getSize())
-                            .shoeColor(shoe.getColor())
-                            .shoePrice(shoe.getPrice())
-                            .shoeImageUrl(shoe.getImageUrl())
-                            .quantity(item.getQuantity())
-                            .totalPrice(totalPrice)
-                            .build();
-                })
+    OrderResponse mapToOrderResponse(Order order) {
+        List<CartItemResponse> cartItemResponses = order.getLines().stream()
+                .map(line -> CartItemResponse.builder()
+                        .id(line.getId())
+                        .shoeId(line.getShoeId())
+                        .shoeName(line.getShoeName())
+                        .shoeBrand(line.getShoeBrand())
+                        .shoeSize(line.getShoeSize())
+                        .shoeColor(line.getShoeColor())
+                        .shoePrice(line.getUnitPrice())
+                        .shoeImageUrl(line.getImageKey() != null
+                                ? imageService.getImageUrl(line.getImageKey()) : line.getImageUrl())
+                        .quantity(line.getQuantity())
+                        .totalPrice(line.getTotalPrice())
+                        .build())
                 .collect(Collectors.toList());
 
         return OrderResponse.builder()
                 .id(order.getId())
                 .userId(order.getUser().getId())
-                .username(order.getUser().getUsername())
+                .username(getUsername(order.getUser()))
                 .orderDate(order.getOrderDate())
                 .totalAmount(order.getTotalAmount())
                 .status(order.getStatus())
@@ -303,10 +285,31 @@ public class OrderServiceImpl implements OrderService {
 
 
 
-    private User getCurrentUser() {
-        UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        return userRepository.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", userDetails.getUsername()));
+    private static OrderLine toOrderLine(Order order, CartItem item) {
+        Shoe shoe = item.getShoe();
+        return OrderLine.builder()
+                .order(order)
+                .shoeId(shoe.getId())
+                .shoeName(shoe.getName())
+                .shoeBrand(shoe.getBrand())
+                .shoeSize(shoe.getSize())
+                .shoeColor(shoe.getColor())
+                .unitPrice(shoe.getPrice())
+                .quantity(item.getQuantity())
+                .imageKey(shoe.getImageKey())
+                .imageUrl(shoe.getImageUrl())
+                .build();
+    }
+
+    private String getUsername(User user) {
+        // A reference from CurrentUserResolver isn't loaded; the principal already knows the username
+        if (!Hibernate.isInitialized(user)) {
+            UserPrincipal principal = currentUserResolver.getCurrentPrincipal();
+            if (principal.getId().equals(user.getId())) {
+                return principal.getUsername();
+            }
+        }
+        return user.getUsername();
     }
 
 
@@ -315,9 +318,10 @@ public class OrderServiceImpl implements OrderService {
 
     @Transactional
     public OrderResponse updateTrackingNumber(Long id, String trackingNumber) {
-        Order order = orderRepository.findById(id)
+        Order order = orderRepository.findWithLinesById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
 
+        String previousStatus = order.getStatus();
         order.setTrackingNumber(trackingNumber);
         if (order.getStatus().equals("PENDING") || order.getStatus().equals("PROCESSING")) {
             order.setStatus("SHIPPED");
@@ -325,6 +329,7 @@ public class OrderServiceImpl implements OrderService {
         }
 
         Order updatedOrder = orderRepository.save(order);
+        publishStatusChange(updatedOrder, previousStatus);
         log.info("Updated tracking number for order id: {} to {}", id, trackingNumber);
 
         return mapToOrderResponse(updatedOrder);
@@ -332,13 +337,15 @@ public class OrderServiceImpl implements OrderService {
 
     @Transactional
     public OrderResponse markAsShipped(Long id) {
-        Order order = orderRepository.findById(id)
+        Order order = orderRepository.findWithLinesById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
 
+        String previousStatus = order.getStatus();
         order.setStatus("SHIPPED");
         order.setShippedDate(LocalDateTime.now());
 
         Order updatedOrder = orderRepository.save(order);
+        publishStatusChange(updatedOrder, previousStatus);
         log.info("Marked order id: {} as shipped", id);
 
         return mapToOrderResponse(updatedOrder);
@@ -346,84 +353,28 @@ public class OrderServiceImpl implements OrderService {
 
     @Transactional
     public OrderResponse markAsDelivered(Long id) {
-        Order order = orderRepository.findById(id)
+        Order order = orderRepository.findWithLinesById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
 
+        String previousStatus = order.getStatus();
         order.setStatus("DELIVERED");
         order.setDeliveredDate(LocalDateTime.now());
 
         Order updatedOrder = orderRepository.save(order);
+        publishStatusChange(updatedOrder, previousStatus);
         log.info("Marked order id: {} as delivered", id);
 
         return mapToOrderResponse(updatedOrder);
     }
 
     public Map<String, Object> getOrderStatistics(String timeframe) {
-        LocalDateTime startDate;
-        LocalDateTime endDate = LocalDateTime.now();
-
-        if (timeframe == null || timeframe.equals("all")) {
-            startDate = LocalDateTime.now().minusYears(10); // Just a very old date to get all orders
-        } else if (timeframe.equals("today")) {
-            startDate = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0);
-        } else if (timeframe.equals("week")) {
-            startDate = LocalDateTime.now().minusDays(7);
-        } else if (timeframe.equals("month")) {
-            startDate = LocalDateTime.now().minusMonths(1);
-        } else if (timeframe.equals("year")) {
-            startDate = LocalDateTime.now().minusYears(1);
-        } else {
-            throw new BadRequestException("Invalid timeframe parameter. Valid values: all, today, week, month, year");
-        }
+        return orderStatisticsService.getOrderStatistics(timeframe);
+    }
 
-        List<Order> orders = orderRepository.findByOrderDateBetween(startDate, endDate);
-
-        // Calculate statistics
-        BigDecimal totalRevenue = orders.stream()
-                .map(Order::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        long totalOrders = orders.size();
-
-        long pendingOrders = orders.stream()
-                .filter(order -> order.getStatus().equals("PENDING"))
-                .count();
-
-        long processingOrders = orders.stream()
-                .filter(order -> order.getStatus().equals("PROCESSING"))
-                .count();
-
-        long shippedOrders = orders.stream()
-                .filter(order -> order.getStatus().equals("SHIPPED"))
-                .count();
-
-        long deliveredOrders = orders.stream()
-                .filter(order -> order.getStatus().equals("DELIVERED"))
-                .count();
-
-        long cancelledOrders = orders.stream()
-                .filter(order -> order.getStatus().equals("CANCELLED"))
-                .count();
-
-        // Group orders by date (daily count)
-        Map<String, Long> ordersByDate = orders.stream()
-                .collect(Collectors.groupingBy(
-                        order -> order.getOrderDate().toLocalDate().toString(),
-                        Collectors.counting()
-                ));
-
-        Map<String, Object> statistics = new HashMap<>();
-        statistics.put("timeframe", timeframe != null ? timeframe : "all");
-        statistics.put("totalRevenue", totalRevenue);
-        statistics.put("totalOrders", totalOrders);
-        statistics.put("pendingOrders", pendingOrders);
-        statistics.put("processingOrders", processingOrders);
-        statistics.put("shippedOrders", shippedOrders);
-        statistics.put("deliveredOrders", deliveredOrders);
-        statistics.put("cancelledOrders", cancelledOrders);
-        statistics.put("ordersByDate", ordersByDate);
-
-        return statistics;
+    private void publishStatusChange(Order order, String previousStatus) {
+        if (!order.getStatus().equals(previousStatus)) {
+            outboxPublisher.publish(OrderEvent.STATUS_CHANGED, order.getId(), OrderEvent.of(order, previousStatus));
+        }
     }
 
 }
@@ -0,0 +1,187 @@
+package com.shoeapp.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shoeapp.entity.OutboxEvent;
+import com.shoeapp.event.OrderEvent;
+import com.shoeapp.exception.BadRequestException;
+import com.shoeapp.outbox.OutboxHandler;
+import com.shoeapp.repository.OrderDailyStatRepository;
+import com.shoeapp.repository.OrderDailyStatRepository.DailyTotals;
+import com.shoeapp.repository.OrderDailyStatRepository.StatusTotals;
+import com.shoeapp.repository.OrderRepository;
+import com.shoeapp.repository.OutboxDeliveryRepository;
+import com.shoeapp.service.OrderStatisticsService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Serves order statistics from the order_daily_stats rollup. The rollup is updated from the
+ * order events in the outbox, so it trails order placements and status changes by about one
+ * outbox poll.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderStatisticsServiceImpl implements OrderStatisticsService, OutboxHandler {
+
+    private static final Set<String> ORDER_EVENTS = Set.of(OrderEvent.PLACED, OrderEvent.STATUS_CHANGED);
+
+    private final OrderDailyStatRepository orderDailyStatRepository;
+    private final OrderRepository orderRepository;
+    private final OutboxDeliveryRepository outboxDeliveryRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    private TransactionTemplate requiresNew;
+
+    @PostConstruct
+    public void init() {
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public String getName() {
+        return "order-statistics";
+    }
+
+    public boolean supports(String eventType) {
+        return ORDER_EVENTS.contains(eventType);
+    }
+
+    public void handle(OutboxEvent event) {
+        OrderEvent order;
+        try {
+            order = objectMapper.readValue(event.getPayload(), OrderEvent.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unreadable order event " + event.getId(), ex);
+        }
+        if (order.fromStatus() == null) {
+            recordOrderPlaced(order.orderDate(), order.toStatus(), order.totalAmount());
+        } else {
+            recordStatusChange(order.orderDate(), order.fromStatus(), order.toStatus(), order.totalAmount());
+        }
+    }
+
+    @Transactional
+    public void recordOrderPlaced(LocalDate orderDate, String status, BigDecimal amount) {
+        add(orderDate, status, 1, amount);
+    }
+
+    @Transactional
+    public void recordStatusChange(LocalDate orderDate, String fromStatus, String toStatus, BigDecimal amount) {
+        if (fromStatus != null && fromStatus.equals(toStatus)) {
+            return;
+        }
+        if (fromStatus != null) {
+            add(orderDate, fromStatus, -1, amount.negate());
+        }
+        add(orderDate, toStatus, 1, amount);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getOrderStatistics(String timeframe) {
+        LocalDate today = LocalDate.now();
+        LocalDate startDate;
+
+        if (timeframe == null || timeframe.equals("all")) {
+            startDate = today.minusYears(10); // Just a very old date to get all orders
+        } else if (timeframe.equals("today")) {
+            startDate = today;
+        } else if (timeframe.equals("week")) {
+            startDate = today.minusDays(7);
+        } else if (timeframe.equals("month")) {
+            startDate = today.minusMonths(1);
+        } else if (timeframe.equals("year")) {
+            startDate = today.minusYears(1);
+        } else {
+            throw new BadRequestException("Invalid timeframe parameter. Valid values: all, today, week, month, year");
+        }
+
+        Map<String, Long> ordersByStatus = new HashMap<>();
+        BigDecimal totalRevenue = BigDecimal.ZERO;
+        long totalOrders = 0;
+        for (StatusTotals totals : orderDailyStatRepository.sumByStatusSince(startDate)) {
+            ordersByStatus.put(totals.getStatus(), totals.getOrderCount());
+            totalRevenue = totalRevenue.add(totals.getRevenue());
+            totalOrders += totals.getOrderCount();
+        }
+
+        Map<String, Long> ordersByDate = new TreeMap<>();
+        Map<String, BigDecimal> revenueByDate = new TreeMap<>();
+        Map<String, BigDecimal> revenueByWeek = new TreeMap<>();
+        for (DailyTotals totals : orderDailyStatRepository.sumByDateSince(startDate)) {
+            if (totals.getOrderCount() == 0) {
+                continue;
+            }
+            String date = totals.getStatDate().toString();
+            String weekStart = totals.getStatDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).toString();
+            ordersByDate.put(date, totals.getOrderCount());
+            revenueByDate.put(date, totals.getRevenue());
+            revenueByWeek.merge(weekStart, totals.getRevenue(), BigDecimal::add);
+        }
+
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("timeframe", timeframe != null ? timeframe : "all");
+        statistics.put("totalRevenue", totalRevenue);
+        statistics.put("totalOrders", totalOrders);
+        statistics.put("pendingOrders", ordersByStatus.getOrDefault("PENDING", 0L));
+        statistics.put("processingOrders", ordersByStatus.getOrDefault("PROCESSING", 0L));
+        statistics.put("shippedOrders", ordersByStatus.getOrDefault("SHIPPED", 0L));
+        statistics.put("deliveredOrders", ordersByStatus.getOrDefault("DELIVERED", 0L));
+        statistics.put("cancelledOrders", ordersByStatus.getOrDefault("CANCELLED", 0L));
+        statistics.put("ordersByDate", ordersByDate);
+        statistics.put("revenueByDate", revenueByDate);
+        statistics.put("revenueByWeek", revenueByWeek);
+
+        return statistics;
+    }
+
+    @Transactional
+    public void rebuild() {
+        // The rebuilt rollup already counts the orders behind any undelivered events
+        outboxDeliveryRepository.markUnprocessedAsDelivered(getName(), ORDER_EVENTS);
+        orderDailyStatRepository.deleteAllInBatch();
+        int rows = orderDailyStatRepository.rebuildFromOrders();
+        log.info("Rebuilt order statistics rollup with {} rows", rows);
+    }
+
+    @Transactional
+    public void rebuildIfEmpty() {
+        if (orderDailyStatRepository.count() == 0 && orderRepository.count() > 0) {
+            rebuild();
+        }
+    }
+
+    private void add(LocalDate orderDate, String status, long count, BigDecimal amount) {
+        if (orderDailyStatRepository.increment(orderDate, status, count, amount) > 0) {
+            return;
+        }
+
+        // First order for this day and status: create the row in its own transaction so a
+        // concurrent insert of the same row doesn't abort the order transaction
+        try {
+            requiresNew.executeWithoutResult(tx -> orderDailyStatRepository.insertEmpty(orderDate, status));
+        } catch (DataIntegrityViolationException ex) {
+            log.debug("Order statistics row for {} {} was created concurrently", orderDate, status);
+        }
+        orderDailyStatRepository.increment(orderDate, status, count, amount);
+    }
+}
@@ -0,0 +1,550 @@
+package com.shoeapp.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.shoeapp.config.CacheConfig;
+import com.shoeapp.dto.request.ShoeRequest;
+import com.shoeapp.dto.response.ShoeImportJobResponse;
+import com.shoeapp.entity.Shoe;
+import com.shoeapp.event.CatalogImportedEvent;
+import com.shoeapp.exception.BadRequestException;
+import com.shoeapp.exception.ResourceNotFoundException;
+import com.shoeapp.repository.ShoeRepository;
+import com.shoeapp.search.ShoeSearchIndex;
+import com.shoeapp.service.ImageService;
+import com.shoeapp.service.ShoeImportService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs bulk imports as background jobs on the application task executor. The upload is spooled
+ * to a temporary file so the request returns straight away; the job then reads it as a stream,
+ * app.shoes.import.chunk-size rows at a time. Each chunk is validated in parallel and upserted in
+ * one transaction, so the inserts and updates go out as JDBC batches. A chunk that fails to commit
+ * is retried row by row, so only the offending rows are reported. The shoe caches and the
+ * catalogue version are invalidated once, when the job ends, rather than for every row.
+ */
+@Service
+@Slf4j
+public class ShoeImportServiceImpl implements ShoeImportService {
+
+    private static final String QUEUED = "QUEUED";
+    private static final String RUNNING = "RUNNING";
+    private static final String COMPLETED = "COMPLETED";
+    private static final String FAILED = "FAILED";
+
+    private final ShoeRepository shoeRepository;
+    private final ImageService imageService;
+    private final CacheManager cacheManager;
+    private final ShoeSearchIndex shoeSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final AsyncTaskExecutor taskExecutor;
+    private final ObjectReader requestReader;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${app.shoes.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.shoes.import.max-errors:1000}")
+    private int maxErrors;
+
+    @Value("${app.shoes.import.job-retention:1h}")
+    private Duration jobRetention;
+
+    public ShoeImportServiceImpl(ShoeRepository shoeRepository, ImageService imageService,
+                                 CacheManager cacheManager, ShoeSearchIndex shoeSearchIndex,
+                                 ApplicationEventPublisher eventPublisher, Validator validator,
+                                 TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                                 @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                                 AsyncTaskExecutor taskExecutor) {
+        this.shoeRepository = shoeRepository;
+        this.imageService = imageService;
+        this.cacheManager = cacheManager;
+        this.shoeSearchIndex = shoeSearchIndex;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.taskExecutor = taskExecutor;
+        this.requestReader = objectMapper.readerFor(ShoeRequest.class);
+    }
+
+    public ShoeImportJobResponse startImport(Format format, InputStream in) throws IOException {
+        // Two imports of overlapping rows would both miss each other's new shoes and create duplicates
+        if (!running.compareAndSet(false, true)) {
+            throw new BadRequestException("A catalog import is already running");
+        }
+
+        Path file = null;
+        boolean started = false;
+        try {
+            file = Files.createTempFile("shoe-import-", "." + format.getExtension());
+            Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+
+            pruneFinishedJobs();
+            ImportJob job = new ImportJob(format);
+            jobs.put(job.id, job);
+            Path upload = file;
+            taskExecutor.execute(() -> run(job, upload));
+            started = true;
+
+            log.info("Queued shoe import {} of {} bytes", job.id, Files.size(file));
+            return job.toResponse();
+        } finally {
+            if (!started) {
+                running.set(false);
+                deleteQuietly(file);
+            }
+        }
+    }
+
+    public ShoeImportJobResponse getJob(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import job", "id", jobId);
+        }
+        return job.toResponse();
+    }
+
+    private void run(ImportJob job, Path file) {
+        job.status = RUNNING;
+        job.startedAt = LocalDateTime.now();
+        String failure = null;
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            RowReader rows = job.format == Format.CSV ? new CsvRowReader(reader) : new NdjsonRowReader(reader);
+            List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+            ParsedRow row;
+            while ((row = rows.next()) != null) {
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    importChunk(job, chunk);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(job, chunk);
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Shoe import {} failed after {} rows", job.id, job.rowsProcessed, ex);
+            failure = ex.getMessage();
+        } finally {
+            deleteQuietly(file);
+            // Whatever was committed before a failure still has to become visible
+            if (job.created + job.updated > 0) {
+                invalidateCatalog(job);
+            }
+            running.set(false);
+            job.finish(failure);
+        }
+
+        log.info("Shoe import {} {}: {} rows, {} created, {} updated, {} failed",
+                job.id, job.status, job.rowsProcessed, job.created, job.updated, job.failed);
+    }
+
+    private void importChunk(ImportJob job, List<ParsedRow> chunk) {
+        // Validation and image resolution work row by row, so they spread over the common pool;
+        // the order of the chunk is kept for the upsert and the error report
+        List<PreparedRow> prepared = chunk.parallelStream()
+                .map(this::prepare)
+                .toList();
+
+        List<PreparedRow> valid = new ArrayList<>(prepared.size());
+        for (PreparedRow row : prepared) {
+            if (row.error() != null) {
+                job.fail(row.number(), row.error(), maxErrors);
+            } else {
+                valid.add(row);
+            }
+        }
+
+        if (!valid.isEmpty()) {
+            try {
+                applyChunk(job, valid);
+            } catch (RuntimeException ex) {
+                log.debug("Chunk of shoe import {} failed, retrying its rows one at a time", job.id, ex);
+                for (PreparedRow row : valid) {
+                    try {
+                        applyChunk(job, List.of(row));
+                    } catch (RuntimeException rowEx) {
+                        job.fail(row.number(), "Not saved: "
+                                + NestedExceptionUtils.getMostSpecificCause(rowEx).getMessage(), maxErrors);
+                    }
+                }
+            }
+        }
+        job.rowsProcessed += chunk.size();
+    }
+
+    private void applyChunk(ImportJob job, List<PreparedRow> rows) {
+        UpsertResult result = transactionTemplate.execute(status -> upsert(rows));
+        job.created += result.created();
+        job.updated += result.updated();
+        // After commit, like the index's own listener, so rolled-back rows never become searchable
+        result.shoes().forEach(shoeSearchIndex::index);
+    }
+
+    private UpsertResult upsert(List<PreparedRow> rows) {
+        Set<String> brands = new HashSet<>();
+        Set<String> names = new HashSet<>();
+        for (PreparedRow row : rows) {
+            brands.add(row.shoe().getBrand());
+            names.add(row.shoe().getName());
+        }
+
+        // One query for the whole chunk; the cross product of brands and names can over-fetch,
+        // so matches are made on the full key
+        Map<ShoeKey, Shoe> existing = new HashMap<>();
+        for (Shoe shoe : shoeRepository.findByBrandInAndNameIn(brands, names)) {
+            existing.putIfAbsent(ShoeKey.of(shoe), shoe);
+        }
+
+        Map<ShoeKey, Shoe> touched = new LinkedHashMap<>();
+        List<Shoe> created = new ArrayList<>();
+        int updated = 0;
+        for (PreparedRow row : rows) {
+            ShoeKey key = ShoeKey.of(row.shoe());
+            Shoe shoe = touched.containsKey(key) ? touched.get(key) : existing.get(key);
+            if (shoe == null) {
+                // A fresh entity each time, as a rolled-back attempt leaves its id on the last one
+                shoe = Shoe.builder()
+                        .name(row.shoe().getName())
+                        .brand(row.shoe().getBrand())
+                        .size(row.shoe().getSize())
+                        .color(row.shoe().getColor())
+                        .build();
+                copy(row.shoe(), shoe);
+                created.add(shoe);
+            } else {
+                // Managed, so the change is flushed as an update at commit
+                copy(row.shoe(), shoe);
+                updated++;
+            }
+            touched.put(key, shoe);
+        }
+        shoeRepository.saveAll(created);
+
+        return new UpsertResult(touched.values(), created.size(), updated);
+    }
+
+    private PreparedRow prepare(ParsedRow row) {
+        if (row.error() != null) {
+            return new PreparedRow(row.number(), null, row.error());
+        }
+
+        ShoeRequest request = row.request();
+        Set<ConstraintViolation<ShoeRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .reduce((a, b) -> a + "; " + b)
+                    .orElseThrow();
+            return new PreparedRow(row.number(), null, message);
+        }
+
+        Shoe shoe = Shoe.builder()
+                .name(request.getName())
+                .brand(request.getBrand())
+                .category(request.getCategory())
+                .size(request.getSize())
+                .color(request.getColor())
+                .price(request.getPrice())
+                .stock(request.getStock())
+                .description(request.getDescription())
+                .build();
+        try {
+            imageService.applyImage(shoe, request.getImageUrl());
+        } catch (BadRequestException ex) {
+            return new PreparedRow(row.number(), null, ex.getMessage());
+        }
+        return new PreparedRow(row.number(), shoe, null);
+    }
+
+    private static void copy(Shoe from, Shoe to) {
+        to.setCategory(from.getCategory());
+        to.setPrice(from.getPrice());
+        to.setStock(from.getStock());
+        to.setDescription(from.getDescription());
+        to.setImageKey(from.getImageKey());
+        to.setImageUrl(from.getImageUrl());
+    }
+
+    private void invalidateCatalog(ImportJob job) {
+        // One clear per cache instead of an eviction per imported row
+        for (String name : List.of(CacheConfig.SHOES, CacheConfig.SHOES_BY_BRAND, CacheConfig.SHOES_BY_CATEGORY)) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        eventPublisher.publishEvent(new CatalogImportedEvent(job.id, job.created, job.updated));
+    }
+
+    private void pruneFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(jobRetention);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Could not delete import file {}", file, ex);
+        }
+    }
+
+    private record ParsedRow(long number, ShoeRequest request, String error) {
+    }
+
+    private record PreparedRow(long number, Shoe shoe, String error) {
+    }
+
+    private record UpsertResult(Collection<Shoe> shoes, int created, int updated) {
+    }
+
+    private record ShoeKey(String brand, String name, String size, String color) {
+
+        static ShoeKey of(Shoe shoe) {
+            return new ShoeKey(shoe.getBrand(), shoe.getName(), shoe.getSize(), shoe.getColor());
+        }
+    }
+
+    private interface RowReader {
+
+        /** The next data row, or null at the end of the file. */
+        ParsedRow next() throws IOException;
+    }
+
+    private class NdjsonRowReader implements RowReader {
+
+        private final BufferedReader reader;
+        private long row;
+
+        NdjsonRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        public ParsedRow next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+
+            row++;
+            try {
+                return new ParsedRow(row, requestReader.readValue(line), null);
+            } catch (JsonProcessingException ex) {
+                return new ParsedRow(row, null, "Invalid JSON: " + ex.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads RFC 4180 CSV: fields may be quoted, and quoted fields may hold commas, doubled quotes
+     * and line breaks. Header names match the {@code ShoeRequest} fields, ignoring case and
+     * underscores, so both imageUrl and image_url are accepted.
+     */
+    private static class CsvRowReader implements RowReader {
+
+        private final BufferedReader reader;
+        private final String[] columns;
+        private long row;
+
+        CsvRowReader(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            List<String> header = readRecord();
+            if (header == null) {
+                throw new BadRequestException("The import file is empty");
+            }
+            columns = new String[header.size()];
+            for (int i = 0; i < columns.length; i++) {
+                // A byte order mark from spreadsheet exports would otherwise stick to the first name
+                String column = header.get(i).replace("\uFEFF", "").replace("_", "").trim().toLowerCase(Locale.ROOT);
+                if (!List.of("name", "brand", "category", "size", "color", "price", "stock", "description",
+                        "imageurl").contains(column)) {
+                    throw new BadRequestException("Unknown column in import header: " + header.get(i));
+                }
+                columns[i] = column;
+            }
+        }
+
+        public ParsedRow next() throws IOException {
+            List<String> values;
+            do {
+                values = readRecord();
+            } while (values != null && values.size() == 1 && values.get(0).isBlank());
+            if (values == null) {
+                return null;
+            }
+
+            row++;
+            if (values.size() != columns.length) {
+                return new ParsedRow(row, null,
+                        "Expected " + columns.length + " columns but found " + values.size());
+            }
+            ShoeRequest request = new ShoeRequest();
+            for (int i = 0; i < columns.length; i++) {
+                String value = values.get(i).isEmpty() ? null : values.get(i);
+                try {
+                    set(request, columns[i], value);
+                } catch (NumberFormatException ex) {
+                    return new ParsedRow(row, null, "Invalid " + columns[i] + ": " + value);
+                }
+            }
+            return new ParsedRow(row, request, null);
+        }
+
+        private static void set(ShoeRequest request, String column, String value) {
+            switch (column) {
+                case "name" -> request.setName(value);
+                case "brand" -> request.setBrand(value);
+                case "category" -> request.setCategory(value);
+                case "size" -> request.setSize(value);
+                case "color" -> request.setColor(value);
+                case "price" -> request.setPrice(value != null ? new BigDecimal(value.trim()) : null);
+                case "stock" -> request.setStock(value != null ? Integer.valueOf(value.trim()) : null);
+                case "description" -> request.setDescription(value);
+                default -> request.setImageUrl(value);
+            }
+        }
+
+        private List<String> readRecord() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new BadRequestException("Unterminated quoted field in row " + (row + 1));
+                    }
+                    if (c == '"') {
+                        int next = reader.read();
+                        if (next != '"') {
+                            quoted = false;
+                            c = next;
+                            continue;
+                        }
+                    }
+                    value.append((char) c);
+                } else if (c == '"' && value.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(value.toString());
+                    value.setLength(0);
+                } else if (c == '\n' || c == -1) {
+                    values.add(value.toString());
+                    return values;
+                } else if (c != '\r') {
+                    value.append((char) c);
+                }
+                c = reader.read();
+            }
+        }
+    }
+
+    /** Progress of one import. Only the job's own thread writes to it. */
+    private static class ImportJob {
+
+        private final String id = UUID.randomUUID().toString();
+        private final Format format;
+        private final List<ShoeImportJobResponse.RowError> errors = new ArrayList<>();
+
+        private volatile String status = QUEUED;
+        private volatile long rowsProcessed;
+        private volatile long created;
+        private volatile long updated;
+        private volatile long failed;
+        private volatile String message;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+
+        ImportJob(Format format) {
+            this.format = format;
+        }
+
+        void fail(long row, String message, int maxErrors) {
+            failed++;
+            synchronized (errors) {
+                if (errors.size() < maxErrors) {
+                    errors.add(new ShoeImportJobResponse.RowError(row, message));
+                }
+            }
+        }
+
+        void finish(String failure) {
+            message = failure;
+            finishedAt = LocalDateTime.now();
+            status = failure == null ? COMPLETED : FAILED;
+        }
+
+        ShoeImportJobResponse toResponse() {
+            List<ShoeImportJobResponse.RowError> errorsSoFar;
+            synchronized (errors) {
+                errorsSoFar = List.copyOf(errors);
+            }
+            return ShoeImportJobResponse.builder()
+                    .jobId(id)
+                    .format(format.getExtension())
+                    .status(status)
+                    .rowsProcessed(rowsProcessed)
+                    .created(created)
+                    .updated(updated)
+                    .failed(failed)
+                    .message(message)
+                    .errors(errorsSoFar)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
@@ -1,25 +1,69 @@
 package com.shoeapp.service.impl;
 
+import com.shoeapp.config.CacheConfig;
 import com.shoeapp.dto.request.ShoeRequest;
+import com.shoeapp.dto.request.ShoeSearchRequest;
+import com.shoeapp.dto.response.ShoePageResponse;
 import com.shoeapp.dto.response.ShoeResponse;
+import com.shoeapp.dto.response.ShoeSearchResponse;
+import com.shoeapp.dto.response.ShoeSummaryResponse;
 import com.shoeapp.entity.Shoe;
+import com.shoeapp.event.ShoeChangedEvent;
+import com.shoeapp.exception.BadRequestException;
 import com.shoeapp.exception.ResourceNotFoundException;
 import com.shoeapp.repository.ShoeRepository;
+import com.shoeapp.search.ShoeSearchIndex;
+import com.shoeapp.service.ImageService;
 import com.shoeapp.service.ShoeService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.transaction.annotation.Transactional;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Observed(name = "shoeapp.service")
 public class ShoeServiceImpl implements ShoeService {
 
+    private static final String SORT_BY_ID = "id";
+    private static final String SORT_BY_CREATED_AT = "createdAt";
+
     private final ShoeRepository shoeRepository;
+    private final ImageService imageService;
+    private final CacheManager cacheManager;
+    private final ShoeSearchIndex shoeSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.shoes.page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.shoes.max-page-size:100}")
+    private int maxPageSize;
+
+    @Value("${app.search.max-results:10000}")
+    private int maxSearchResults;
 
     @Transactional(readOnly = true)
     public List<ShoeResponse> getAllShoes() {
@@ -30,6 +74,96 @@ public class ShoeServiceImpl implements ShoeService {
     }
 
     @Transactional(readOnly = true)
+    public ShoePageResponse getShoesPage(String cursor, Integer size, String sort) {
+        String sortBy = sort == null || sort.isEmpty() ? SORT_BY_ID : sort;
+        if (!sortBy.equals(SORT_BY_ID) && !sortBy.equals(SORT_BY_CREATED_AT)) {
+            throw new BadRequestException("Invalid sort parameter. Valid values: id, createdAt");
+        }
+
+        int pageSize = size == null ? defaultPageSize : size;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new BadRequestException("Page size must be between 1 and " + maxPageSize);
+        }
+
+        // Fetch one extra row so we know whether another page exists without a count query
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<Shoe> shoes;
+
+        if (cursor == null || cursor.isEmpty()) {
+            shoes = sortBy.equals(SORT_BY_ID)
+                    ? shoeRepository.findAllByOrderByIdAsc(limit)
+                    : shoeRepository.findFirstPageOrderByCreatedAt(limit);
+        } else {
+            String[] parts = decodeCursor(cursor, sortBy);
+            if (sortBy.equals(SORT_BY_ID)) {
+                shoes = shoeRepository.findByIdGreaterThanOrderByIdAsc(Long.valueOf(parts[1]), limit);
+            } else {
+                shoes = shoeRepository.findPageAfterCreatedAt(
+                        LocalDateTime.parse(parts[1]), Long.valueOf(parts[2]), limit);
+            }
+        }
+
+        boolean hasMore = shoes.size() > pageSize;
+        if (hasMore) {
+            shoes = shoes.subList(0, pageSize);
+        }
+
+        List<ShoeResponse> items = shoes.stream()
+                .map(this::mapToShoeResponse)
+                .collect(Collectors.toList());
+
+        return ShoePageResponse.builder()
+                .items(items)
+                .size(items.size())
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? encodeCursor(shoes.get(shoes.size() - 1), sortBy) : null)
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public ShoeSearchResponse searchShoes(ShoeSearchRequest searchRequest) {
+        if (searchRequest.getSort() != null && !ShoeSearchIndex.isValidSort(searchRequest.getSort())) {
+            throw new BadRequestException("Invalid sort parameter. Valid values: relevance, price_asc, price_desc, newest");
+        }
+
+        int page = searchRequest.getPage() == null ? 0 : searchRequest.getPage();
+        int limit = searchRequest.getLimit() == null ? defaultPageSize : searchRequest.getLimit();
+        if (page < 0) {
+            throw new BadRequestException("Page must not be negative");
+        }
+        if (limit < 1 || limit > maxPageSize) {
+            throw new BadRequestException("Limit must be between 1 and " + maxPageSize);
+        }
+        if ((long) page * limit >= maxSearchResults) {
+            throw new BadRequestException("Only the first " + maxSearchResults + " results can be paged through");
+        }
+        if (searchRequest.getMinPrice() != null && searchRequest.getMaxPrice() != null
+                && searchRequest.getMinPrice().compareTo(searchRequest.getMaxPrice()) > 0) {
+            throw new BadRequestException("Minimum price must not be greater than maximum price");
+        }
+
+        ShoeSearchIndex.SearchResult result = shoeSearchIndex.search(searchRequest, page * limit, limit);
+
+        // The index only yields ids; fetch the page's rows by primary key and keep the index order
+        Map<Long, Shoe> shoesById = shoeRepository.findAllById(result.shoeIds()).stream()
+                .collect(Collectors.toMap(Shoe::getId, Function.identity()));
+        List<ShoeResponse> items = result.shoeIds().stream()
+                .map(shoesById::get)
+                .filter(Objects::nonNull)
+                .map(this::mapToShoeResponse)
+                .collect(Collectors.toList());
+
+        return ShoeSearchResponse.builder()
+                .items(items)
+                .total(result.total())
+                .page(page)
+                .limit(limit)
+                .facets(result.facets())
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.SHOES, key = "#id")
     public ShoeResponse getShoeById(Long id) {
         Shoe shoe = shoeRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Shoe", "id", id));
@@ -38,6 +172,34 @@ public class ShoeServiceImpl implements ShoeService {
     }
 
     @Transactional(readOnly = true)
+    public Map<Long, ShoeResponse> getShoesByIds(Collection<Long> ids) {
+        // Served from the same cache as getShoeById; misses are loaded together in one query
+        Cache cache = cacheManager.getCache(CacheConfig.SHOES);
+        Map<Long, ShoeResponse> shoes = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            ShoeResponse cached = cache != null ? cache.get(id, ShoeResponse.class) : null;
+            if (cached != null) {
+                shoes.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            for (Shoe shoe : shoeRepository.findAllById(missing)) {
+                ShoeResponse response = mapToShoeResponse(shoe);
+                shoes.put(shoe.getId(), response);
+                if (cache != null) {
+                    cache.put(shoe.getId(), response);
+                }
+            }
+        }
+        return shoes;
+    }
+
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.SHOES_BY_BRAND, key = "#brand")
     public List<ShoeResponse> getShoesByBrand(String brand) {
         List<Shoe> shoes = shoeRepository.findByBrand(brand);
         return shoes.stream()
@@ -46,6 +208,7 @@ public class ShoeServiceImpl implements ShoeService {
     }
 
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.SHOES_BY_CATEGORY, key = "#category")
     public List<ShoeResponse> getShoesByCategory(String category) {
         List<Shoe> shoes = shoeRepository.findByCategory(category);
         return shoes.stream()
@@ -53,6 +216,21 @@ public class ShoeServiceImpl implements ShoeService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public List<ShoeSummaryResponse> getShoeSummaries() {
+        return mapToSummaries(shoeRepository.findAllSummaries());
+    }
+
+    @Transactional(readOnly = true)
+    public List<ShoeSummaryResponse> getShoeSummariesByBrand(String brand) {
+        return mapToSummaries(shoeRepository.findSummariesByBrand(brand));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ShoeSummaryResponse> getShoeSummariesByCategory(String category) {
+        return mapToSummaries(shoeRepository.findSummariesByCategory(category));
+    }
+
     @Transactional
     public ShoeResponse createShoe(ShoeRequest shoeRequest) {
         Shoe shoe = Shoe.builder()
@@ -64,12 +242,15 @@ public class ShoeServiceImpl implements ShoeService {
                 .price(shoeRequest.getPrice())
                 .stock(shoeRequest.getStock())
                 .description(shoeRequest.getDescription())
-                .imageUrl(shoeRequest.getImageUrl())
                 .build();
+        imageService.applyImage(shoe, shoeRequest.getImageUrl());
 
         Shoe savedShoe = shoeRepository.save(shoe);
         log.info("Created new shoe: {}", savedShoe.getName());
 
+        evictCachedListings(savedShoe.getBrand(), savedShoe.getCategory());
+        eventPublisher.publishEvent(ShoeChangedEvent.saved(savedShoe));
+
         return mapToShoeResponse(savedShoe);
     }
 
@@ -78,6 +259,9 @@ public class ShoeServiceImpl implements ShoeService {
         Shoe shoe = shoeRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Shoe", "id", id));
 
+        // The shoe may move to another brand/category, so both the old and new listings go stale
+        evictCachedListings(shoe.getBrand(), shoe.getCategory());
+
         shoe.setName(shoeRequest.getName());
         shoe.setBrand(shoeRequest.getBrand());
         shoe.setCategory(shoeRequest.getCategory());
@@ -86,11 +270,15 @@ public class ShoeServiceImpl implements ShoeService {
         shoe.setPrice(shoeRequest.getPrice());
         shoe.setStock(shoeRequest.getStock());
         shoe.setDescription(shoeRequest.getDescription());
-        shoe.setImageUrl(shoeRequest.getImageUrl());
+        imageService.applyImage(shoe, shoeRequest.getImageUrl());
 
         Shoe updatedShoe = shoeRepository.save(shoe);
         log.info("Updated shoe: {}", updatedShoe.getName());
 
+        evictCachedShoe(id);
+        evictCachedListings(updatedShoe.getBrand(), updatedShoe.getCategory());
+        eventPublisher.publishEvent(ShoeChangedEvent.saved(updatedShoe));
+
         return mapToShoeResponse(updatedShoe);
     }
 
@@ -101,9 +289,69 @@ public class ShoeServiceImpl implements ShoeService {
 
         shoeRepository.delete(shoe);
         log.info("Deleted shoe: {}", shoe.getName());
+
+        evictCachedShoe(id);
+        evictCachedListings(shoe.getBrand(), shoe.getCategory());
+        eventPublisher.publishEvent(ShoeChangedEvent.deleted(id));
+    }
+
+    private void evictCachedShoe(Long id) {
+        evict(CacheConfig.SHOES, id);
+    }
+
+    private void evictCachedListings(String brand, String category) {
+        evict(CacheConfig.SHOES_BY_BRAND, brand);
+        evict(CacheConfig.SHOES_BY_CATEGORY, category);
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evict(key);
+        }
+    }
+
+    private String encodeCursor(Shoe last, String sortBy) {
+        String raw = sortBy.equals(SORT_BY_ID)
+                ? SORT_BY_ID + "|" + last.getId()
+                : SORT_BY_CREATED_AT + "|" + last.getCreatedAt() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor, String sortBy) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            int expectedParts = sortBy.equals(SORT_BY_ID) ? 2 : 3;
+            if (parts.length != expectedParts || !parts[0].equals(sortBy)) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            // Validate eagerly so a tampered cursor is a 400 rather than a 500
+            Long.valueOf(parts[parts.length - 1]);
+            if (sortBy.equals(SORT_BY_CREATED_AT)) {
+                LocalDateTime.parse(parts[1]);
+            }
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private List<ShoeSummaryResponse> mapToSummaries(List<ShoeRepository.ShoeSummary> summaries) {
+        return summaries.stream()
+                .map(summary -> ShoeSummaryResponse.builder()
+                        .id(summary.getId())
+                        .name(summary.getName())
+                        .brand(summary.getBrand())
+                        .price(summary.getPrice())
+                        .imageUrl(summary.getImageKey() != null
+                                ? imageService.getImageUrl(summary.getImageKey()) : summary.getImageUrl())
+                        .inStock(summary.getStock() != null && summary.getStock() > 0)
+                        .build())
+                .collect(Collectors.toList());
     }
 
-    private ShoeResponse mapToShoeResponse(Shoe shoe) {
+    ShoeResponse mapToShoeResponse(Shoe shoe) {
         return ShoeResponse.builder()
                 .id(shoe.getId())
                 .name(shoe.getName())
@@ -114,7 +362,7 @@ public class ShoeServiceImpl implements ShoeService {
                 .price(shoe.getPrice())
                 .stock(shoe.getStock())
                 .description(shoe.getDescription())
-                .imageUrl(shoe.getImageUrl())
+                .imageUrl(imageService.getImageUrl(shoe))
                 .createdAt(shoe.getCreatedAt())
                 .updatedAt(shoe.getUpdatedAt())
                 .build();
@@ -0,0 +1,199 @@
+package com.shoeapp.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves catalogue GETs from pre-serialized bodies and answers conditional requests.
+ * <p>
+ * The first request for a URL runs the controller as usual and keeps the JSON it wrote, gzipped
+ * as well when it is large enough, tagged with the {@link CatalogVersion} it was rendered at.
+ * Later requests are answered from that body while the catalogue version is unchanged, and get a
+ * 304 when their If-None-Match or If-Modified-Since still matches, without reaching the
+ * controller at all. The ETag is a hash of the body, so it doesn't change across restarts or
+ * between instances.
+ * <p>
+ * A request answered from here never reaches the DispatcherServlet, so the filter sets the URI
+ * template itself for the http.server.requests and statement metrics.
+ * <p>
+ * Stock is reserved at checkout without a catalogue change, so bodies are also re-rendered once
+ * they are older than app.http.catalog.cache-ttl. A re-render that comes out the same keeps its
+ * ETag and Last-Modified; one that differs moves Last-Modified to the time it was rendered, so a
+ * client revalidating by date alone sees the change. Stale bodies stay in the cache, bounded by
+ * app.http.catalog.cache-size, to be compared against.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogCacheFilter extends OncePerRequestFilter {
+
+    private static final Pattern CATALOG_PATHS =
+            Pattern.compile("/api/shoes(/\\d+|(/summary)?(/brand/[^/]+|/category/[^/]+)?)?/?");
+    private static final String SHOES_PATH = "/api/shoes";
+    private static final int GZIP_MIN_SIZE = 1024;
+
+    private final CatalogVersion catalogVersion;
+
+    @Value("${app.http.catalog.cache-control:public, max-age=60}")
+    private String cacheControl;
+
+    @Value("${app.http.catalog.cache-size:16MB}")
+    private DataSize cacheSize;
+
+    @Value("${app.http.catalog.cache-ttl:60s}")
+    private Duration cacheTtl;
+
+    private Cache<String, CachedBody> bodies;
+
+    @PostConstruct
+    public void init() {
+        bodies = Caffeine.newBuilder()
+                .maximumWeight(cacheSize.toBytes())
+                .weigher((String key, CachedBody body) -> key.length() + body.size())
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod())
+                || !CATALOG_PATHS.matcher(request.getRequestURI().substring(request.getContextPath().length())).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getQueryString() == null
+                ? request.getRequestURI()
+                : request.getRequestURI() + "?" + request.getQueryString();
+        CatalogVersion.Snapshot snapshot = catalogVersion.current();
+
+        CachedBody body = bodies.getIfPresent(key);
+        if (body == null || body.version() != snapshot.version() || isExpired(body)) {
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            filterChain.doFilter(request, wrapper);
+
+            // Errors aren't cached, nor is a body that may predate a change committed meanwhile
+            if (wrapper.getStatus() != HttpServletResponse.SC_OK
+                    || catalogVersion.current().version() != snapshot.version()) {
+                wrapper.copyBodyToResponse();
+                return;
+            }
+            body = CachedBody.of(snapshot, wrapper.getContentType(), wrapper.getContentAsByteArray(), body);
+            bodies.put(key, body);
+        } else {
+            String pattern = pathPattern(request.getRequestURI().substring(request.getContextPath().length()));
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+            ServerHttpObservationFilter.findObservationContext(request)
+                    .ifPresent(context -> context.setPathPattern(pattern));
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (new ServletWebRequest(request, response).checkNotModified(body.etag(), body.lastModified())) {
+            return;
+        }
+
+        byte[] content = body.identity();
+        if (body.gzip() != null && acceptsGzip(request)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            content = body.gzip();
+        }
+        response.setContentType(body.contentType());
+        response.setContentLength(content.length);
+        response.getOutputStream().write(content);
+    }
+
+    // The controller mapping each CATALOG_PATHS form is served by
+    static String pathPattern(String path) {
+        String rest = path.substring(SHOES_PATH.length());
+        if (rest.endsWith("/")) {
+            rest = rest.substring(0, rest.length() - 1);
+        }
+        if (rest.matches("/\\d+")) {
+            return SHOES_PATH + "/{id}";
+        }
+        String prefix = SHOES_PATH;
+        if (rest.startsWith("/summary")) {
+            prefix += "/summary";
+            rest = rest.substring("/summary".length());
+        }
+        if (rest.startsWith("/brand/")) {
+            return prefix + "/brand/{brand}";
+        }
+        if (rest.startsWith("/category/")) {
+            return prefix + "/category/{category}";
+        }
+        return prefix;
+    }
+
+    private boolean isExpired(CachedBody body) {
+        return System.nanoTime() - body.renderedAt() >= cacheTtl.toNanos();
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    private record CachedBody(long version, long lastModified, String etag, String contentType,
+                              byte[] identity, byte[] gzip, long renderedAt) {
+
+        static CachedBody of(CatalogVersion.Snapshot snapshot, String contentType, byte[] identity,
+                             CachedBody previous) {
+            // Weak, since the gzipped and identity encodings share the tag
+            String etag = "W/\"" + DigestUtils.md5DigestAsHex(identity) + "\"";
+            byte[] gzip = identity.length >= GZIP_MIN_SIZE ? gzip(identity) : null;
+
+            long lastModified = snapshot.lastModified().toEpochMilli();
+            if (previous != null && previous.etag().equals(etag)) {
+                lastModified = previous.lastModified();
+            } else if (previous != null) {
+                // Changed without a catalogue change (stock): past the previous date, which has
+                // one-second resolution on the wire
+                long now = Instant.now().truncatedTo(ChronoUnit.SECONDS).toEpochMilli();
+                lastModified = Math.max(lastModified, Math.max(now, previous.lastModified() + 1000));
+            }
+            return new CachedBody(snapshot.version(), lastModified, etag, contentType, identity, gzip,
+                    System.nanoTime());
+        }
+
+        int size() {
+            return identity.length + (gzip != null ? gzip.length : 0);
+        }
+
+        private static byte[] gzip(byte[] content) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(content);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            return out.toByteArray();
+        }
+    }
+}
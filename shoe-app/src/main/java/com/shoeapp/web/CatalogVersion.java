@@ -0,0 +1,86 @@
+package com.shoeapp.web;
+
+import com.shoeapp.event.CatalogImportedEvent;
+import com.shoeapp.event.ShoeChangedEvent;
+import com.shoeapp.repository.ShoeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Version counter and last-modified time of the catalogue as a whole. Every committed shoe
+ * change and every finished bulk import bumps the version; the last-modified time starts at the
+ * newest {@code Shoe.updatedAt} and moves forward with each change.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogVersion {
+
+    private final ShoeRepository shoeRepository;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+
+    public Snapshot current() {
+        Snapshot snapshot = current.get();
+        return snapshot != null ? snapshot : load();
+    }
+
+    // After commit, and after the shoe caches were evicted, so nothing re-rendered for the new
+    // version can come from a stale cache entry
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onShoeChanged(ShoeChangedEvent event) {
+        // A deletion leaves no updatedAt behind, so it counts as a change made now
+        Instant changedAt = event.isDeleted() || event.shoe().getUpdatedAt() == null
+                ? Instant.now()
+                : toInstant(event.shoe().getUpdatedAt());
+        bump(changedAt);
+    }
+
+    // Published outside any transaction, once the whole import is committed
+    @EventListener
+    public void onCatalogImported(CatalogImportedEvent event) {
+        bump(Instant.now());
+    }
+
+    private void bump(Instant changedAt) {
+        load();
+        current.updateAndGet(snapshot -> new Snapshot(snapshot.version() + 1,
+                changedAt.isAfter(snapshot.lastModified()) ? changedAt : snapshot.lastModified()));
+    }
+
+    // On first use rather than at startup: the filter holding this is created before the schema
+    // is guaranteed to exist
+    private synchronized Snapshot load() {
+        Snapshot snapshot = current.get();
+        if (snapshot == null) {
+            Instant lastModified = shoeRepository.findLastUpdatedAt()
+                    .map(CatalogVersion::toInstant)
+                    .orElse(Instant.EPOCH);
+            snapshot = new Snapshot(0, lastModified);
+            current.set(snapshot);
+        }
+        return snapshot;
+    }
+
+    private static Instant toInstant(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    /**
+     * @param lastModified truncated to seconds, the resolution of the Last-Modified header
+     */
+    public record Snapshot(long version, Instant lastModified) {
+
+        public Snapshot {
+            lastModified = lastModified.truncatedTo(ChronoUnit.SECONDS);
+        }
+    }
+}
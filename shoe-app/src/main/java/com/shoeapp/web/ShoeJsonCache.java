@@ -0,0 +1,149 @@
+package com.shoeapp.web;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shoeapp.dto.response.ShoeResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Keeps the JSON of each shoe, keyed by id and updatedAt, so an unchanged shoe is serialized
+ * once and later copied into the response as raw UTF-8 bytes, wherever it appears: on its own,
+ * in listings, pages or search results. Every write to a shoe, stock reservations included,
+ * moves updatedAt, so a new version gets a new entry and the old one ages out of the cache.
+ * <p>
+ * Output that can't match the cached form, with a pretty printer or an active JSON view, is
+ * serialized as usual.
+ */
+@Component
+@RequiredArgsConstructor
+public class ShoeJsonCache extends BeanSerializerModifier {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.shoes.json-cache-size:32MB}")
+    private DataSize cacheSize;
+
+    private Cache<Key, SerializedString> fragments;
+
+    @PostConstruct
+    public void init() {
+        fragments = Caffeine.newBuilder()
+                .maximumWeight(cacheSize.toBytes())
+                // The string and its encoded bytes are both kept
+                .weigher((Key key, SerializedString json) -> 2 * json.charLength() + 64)
+                .recordStats()
+                .build();
+        // Same tag keys as Spring's cache meters: Prometheus drops a meter whose keys differ from
+        // the ones already registered under its name
+        CaffeineCacheMetrics.monitor(meterRegistry, fragments, "shoeJson",
+                "cache.manager", "shoeJsonCache", "name", "shoeJson");
+    }
+
+    @Override
+    public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDesc,
+                                              JsonSerializer<?> serializer) {
+        if (beanDesc.getBeanClass() == ShoeResponse.class) {
+            @SuppressWarnings("unchecked")
+            JsonSerializer<Object> delegate = (JsonSerializer<Object>) serializer;
+            return new CachingSerializer(delegate);
+        }
+        return serializer;
+    }
+
+    private record Key(Long id, LocalDateTime updatedAt) {
+    }
+
+    private class CachingSerializer extends StdSerializer<ShoeResponse>
+            implements ContextualSerializer, ResolvableSerializer {
+
+        private final JsonSerializer<Object> delegate;
+
+        CachingSerializer(JsonSerializer<Object> delegate) {
+            super(ShoeResponse.class);
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void serialize(ShoeResponse shoe, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            if (shoe.getId() == null || shoe.getUpdatedAt() == null
+                    || gen.getPrettyPrinter() != null || provider.getActiveView() != null) {
+                delegate.serialize(shoe, gen, provider);
+                return;
+            }
+
+            Key key = new Key(shoe.getId(), shoe.getUpdatedAt());
+            SerializedString json = fragments.getIfPresent(key);
+            if (json == null) {
+                json = render(shoe, gen, provider);
+                fragments.put(key, json);
+            }
+            gen.writeRawValue(json);
+        }
+
+        private SerializedString render(ShoeResponse shoe, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            ByteArrayBuilder bytes = new ByteArrayBuilder();
+            JsonFactory factory = gen.getCodec() != null ? gen.getCodec().getFactory() : JSON_FACTORY;
+            try (JsonGenerator buffer = factory.createGenerator(bytes)) {
+                buffer.setFeatureMask(gen.getFeatureMask());
+                delegate.serialize(shoe, buffer, provider);
+            }
+            SerializedString json = new SerializedString(new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+            // Encoded now rather than on the first raw write
+            json.asUnquotedUTF8();
+            return json;
+        }
+
+        @Override
+        public void serializeWithType(ShoeResponse shoe, JsonGenerator gen, SerializerProvider provider,
+                                      TypeSerializer typeSer) throws IOException {
+            delegate.serializeWithType(shoe, gen, provider, typeSer);
+        }
+
+        @Override
+        public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property)
+                throws JsonMappingException {
+            JsonSerializer<?> contextual = provider.handlePrimaryContextualization(delegate, property);
+            if (contextual == delegate) {
+                return this;
+            }
+            @SuppressWarnings("unchecked")
+            JsonSerializer<Object> contextualDelegate = (JsonSerializer<Object>) contextual;
+            return new CachingSerializer(contextualDelegate);
+        }
+
+        @Override
+        public void resolve(SerializerProvider provider) throws JsonMappingException {
+            if (delegate instanceof ResolvableSerializer resolvable) {
+                resolvable.resolve(provider);
+            }
+        }
+    }
+}
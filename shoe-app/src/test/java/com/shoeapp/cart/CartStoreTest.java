@@ -0,0 +1,175 @@
+package com.shoeapp.cart;
+
+import com.shoeapp.dto.request.CartItemRequest;
+import com.shoeapp.dto.request.OrderRequest;
+import com.shoeapp.dto.response.CartItemResponse;
+import com.shoeapp.dto.response.CartResponse;
+import com.shoeapp.dto.response.OrderResponse;
+import com.shoeapp.entity.Shoe;
+import com.shoeapp.event.ShoeChangedEvent;
+import com.shoeapp.entity.User;
+import com.shoeapp.repository.CartItemRepository;
+import com.shoeapp.repository.ShoeRepository;
+import com.shoeapp.repository.UserRepository;
+import com.shoeapp.security.UserPrincipal;
+import com.shoeapp.service.CartService;
+import com.shoeapp.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+// Flushes are triggered by hand; the scheduled one only runs once at startup. A single stripe
+// puts every cart in the same flush batch.
+@SpringBootTest(properties = {"app.cart.flush-interval-ms=3600000", "app.cart.lock-stripes=1"})
+class CartStoreTest {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShoeRepository shoeRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private User user;
+    private Shoe runner;
+    private Shoe trainer;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .username("cart-" + UUID.randomUUID().toString().substring(0, 8))
+                .email(UUID.randomUUID() + "@example.com")
+                .password("not-used")
+                .role("ROLE_USER")
+                .build());
+        runner = shoeRepository.save(shoe("Runner", "40.00"));
+        trainer = shoeRepository.save(shoe("Trainer", "25.00"));
+
+        authenticate(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void mutationsAreWrittenBehindInBatches() {
+        cartService.addToCart(new CartItemRequest(runner.getId(), 2));
+        cartService.addToCart(new CartItemRequest(trainer.getId(), 1));
+        CartItemResponse merged = cartService.addToCart(new CartItemRequest(runner.getId(), 1));
+
+        assertThat(merged.getId()).isEqualTo(-runner.getId());
+        assertThat(merged.getQuantity()).isEqualTo(3);
+        assertThat(cartItemRepository.findOpenCartLines(user.getId())).isEmpty();
+
+        cartStore.flushDirty();
+
+        assertThat(cartItemRepository.findOpenCartLines(user.getId()))
+                .extracting(CartItemRepository.OpenCartLine::getQuantity)
+                .containsExactly(3, 1);
+        CartResponse cart = cartService.getCart();
+        assertThat(cart.getItems()).allSatisfy(item -> assertThat(item.getId()).isPositive());
+
+        // Temporary ids keep working after the line has been persisted
+        cartService.updateCartItem(-runner.getId(), new CartItemRequest(runner.getId(), 5));
+        cartService.removeFromCart(cart.getItems().get(1).getId());
+        cartStore.flushDirty();
+
+        assertThat(cartItemRepository.findOpenCartLines(user.getId()))
+                .extracting(CartItemRepository.OpenCartLine::getShoeId, CartItemRepository.OpenCartLine::getQuantity)
+                .containsExactly(tuple(runner.getId(), 5));
+    }
+
+    @Test
+    void checkoutFlushesUnwrittenLinesIntoTheOrder() {
+        cartService.addToCart(new CartItemRequest(runner.getId(), 1));
+        cartService.addToCart(new CartItemRequest(trainer.getId(), 2));
+
+        OrderResponse order = orderService.createOrder(OrderRequest.builder()
+                .firstName("Test")
+                .lastName("User")
+                .address("1 Main Street")
+                .city("Springfield")
+                .state("IL")
+                .zipCode("62701")
+                .country("US")
+                .phoneNumber("555 0100")
+                .build(), user);
+
+        assertThat(order.getItems()).hasSize(2);
+        assertThat(order.getTotalAmount()).isEqualByComparingTo("90.00");
+        assertThat(cartService.getCart().getItems()).isEmpty();
+        assertThat(cartItemRepository.findOpenCartLines(user.getId())).isEmpty();
+    }
+
+    @Test
+    void aFailingCartDoesNotHoldBackTheRestOfItsBatch() {
+        cartService.addToCart(new CartItemRequest(trainer.getId(), 1));
+        User other = userRepository.save(User.builder()
+                .username("cart-" + UUID.randomUUID().toString().substring(0, 8))
+                .email(UUID.randomUUID() + "@example.com")
+                .password("not-used")
+                .role("ROLE_USER")
+                .build());
+        authenticate(other);
+        cartService.addToCart(new CartItemRequest(runner.getId(), 1));
+
+        // Deleted behind the store's back, so the other cart's insert fails on the foreign key
+        shoeRepository.delete(runner);
+        cartStore.flushDirty();
+
+        assertThat(cartItemRepository.findOpenCartLines(user.getId()))
+                .extracting(CartItemRepository.OpenCartLine::getShoeId)
+                .containsExactly(trainer.getId());
+        assertThat(cartItemRepository.findOpenCartLines(other.getId())).isEmpty();
+
+        eventPublisher.publishEvent(ShoeChangedEvent.deleted(runner.getId()));
+        assertThat(cartService.getCart().getItems()).isEmpty();
+        cartStore.flushDirty();
+        assertThat(cartItemRepository.findOpenCartLines(other.getId())).isEmpty();
+    }
+
+    private static void authenticate(User user) {
+        UserPrincipal principal = UserPrincipal.create(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private static Shoe shoe(String name, String price) {
+        return Shoe.builder()
+                .name(name)
+                .brand("Brand")
+                .category("Running")
+                .size("42")
+                .color("Black")
+                .price(new BigDecimal(price))
+                .stock(100)
+                .build();
+    }
+}
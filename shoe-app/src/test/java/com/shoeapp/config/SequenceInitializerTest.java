@@ -0,0 +1,39 @@
+package com.shoeapp.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SequenceInitializerTest {
+
+    @Autowired
+    private SequenceInitializer sequenceInitializer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void restartMovesASequencePastExistingIdsWithoutConsumingIt() {
+        long existingId = nextShoeId() + 1000;
+        jdbcTemplate.update("INSERT INTO shoes (id, name, brand, category, size, color, price, stock) " +
+                "VALUES (?, 'Legacy', 'Legacy', 'Legacy', '42', 'Black', 10, 0)", existingId);
+        try {
+            sequenceInitializer.restartSequences();
+            assertThat(nextShoeId()).isEqualTo(existingId + 1);
+
+            sequenceInitializer.restartSequences();
+            assertThat(nextShoeId()).isEqualTo(existingId + 1);
+        } finally {
+            jdbcTemplate.update("DELETE FROM shoes WHERE id = ?", existingId);
+        }
+    }
+
+    private long nextShoeId() {
+        return jdbcTemplate.queryForObject(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'SHOES_SEQ'", Long.class);
+    }
+}
@@ -0,0 +1,142 @@
+package com.shoeapp.outbox;
+
+import com.shoeapp.entity.OrderDailyStat;
+import com.shoeapp.entity.OutboxEvent;
+import com.shoeapp.event.OrderEvent;
+import com.shoeapp.repository.OrderDailyStatRepository;
+import com.shoeapp.repository.OutboxEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Polling is pushed out of the way so the tests decide when the outbox is drained
+@SpringBootTest(properties = {"app.outbox.poll-interval-ms=3600000", "app.outbox.retry-delay=0s"})
+@Import(OutboxDispatcherTest.Handlers.class)
+class OutboxDispatcherTest {
+
+    private static final String TEST_EVENT = "TEST_EVENT";
+
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OrderDailyStatRepository orderDailyStatRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Handlers handlers;
+
+    @Test
+    void retriesReachOnlyTheHandlersThatFailed() {
+        handlers.flakyFailures.set(1);
+        long id = publish(TEST_EVENT, 1L, "payload");
+
+        outboxDispatcher.dispatch();
+
+        OutboxEvent event = outboxEventRepository.findById(id).orElseThrow();
+        assertThat(event.getStatus()).isEqualTo(OutboxEvent.PENDING);
+        assertThat(event.getAttempts()).isEqualTo(1);
+        assertThat(event.getLastError()).contains("Flaky");
+        assertThat(handlers.steady).containsExactly(event.getEventKey());
+
+        outboxDispatcher.dispatch();
+
+        event = outboxEventRepository.findById(id).orElseThrow();
+        assertThat(event.getStatus()).isEqualTo(OutboxEvent.PROCESSED);
+        assertThat(handlers.flaky).containsExactly(event.getEventKey());
+        assertThat(handlers.steady).containsExactly(event.getEventKey());
+    }
+
+    @Test
+    void orderEventsUpdateTheStatisticsRollupOnce() {
+        LocalDate day = LocalDate.of(2001, 2, 3);
+        publish(OrderEvent.PLACED, 10L,
+                new OrderEvent(10L, 1L, day, null, "PENDING", new BigDecimal("80.00")));
+        publish(OrderEvent.STATUS_CHANGED, 10L,
+                new OrderEvent(10L, 1L, day, "PENDING", "SHIPPED", new BigDecimal("80.00")));
+
+        outboxDispatcher.dispatch();
+
+        // As after a crash between the handler's commit and the event being marked processed
+        transactionTemplate.executeWithoutResult(status -> outboxEventRepository.findAll().stream()
+                .filter(event -> event.getEventType().startsWith("ORDER_"))
+                .forEach(event -> event.setStatus(OutboxEvent.PENDING)));
+        outboxDispatcher.dispatch();
+
+        assertThat(stat(day, "PENDING").getOrderCount()).isZero();
+        assertThat(stat(day, "SHIPPED").getOrderCount()).isEqualTo(1);
+        assertThat(stat(day, "SHIPPED").getRevenue()).isEqualByComparingTo("80.00");
+    }
+
+    private long publish(String eventType, Long aggregateId, Object payload) {
+        transactionTemplate.executeWithoutResult(status -> outboxPublisher.publish(eventType, aggregateId, payload));
+        return outboxEventRepository.findAll().stream()
+                .mapToLong(OutboxEvent::getId)
+                .max()
+                .orElseThrow();
+    }
+
+    private OrderDailyStat stat(LocalDate day, String status) {
+        return orderDailyStatRepository.findById(new OrderDailyStat.Key(day, status)).orElseThrow();
+    }
+
+    @TestConfiguration
+    static class Handlers {
+
+        final AtomicInteger flakyFailures = new AtomicInteger();
+        final List<String> flaky = new ArrayList<>();
+        final List<String> steady = new ArrayList<>();
+
+        @Bean
+        OutboxHandler flakyHandler() {
+            return handler("flaky", event -> {
+                if (flakyFailures.getAndDecrement() > 0) {
+                    throw new IllegalStateException("Flaky handler failed");
+                }
+                flaky.add(event.getEventKey());
+            });
+        }
+
+        @Bean
+        OutboxHandler steadyHandler() {
+            return handler("steady", event -> steady.add(event.getEventKey()));
+        }
+
+        private static OutboxHandler handler(String name, Consumer<OutboxEvent> action) {
+            return new OutboxHandler() {
+                public String getName() {
+                    return name;
+                }
+
+                public boolean supports(String eventType) {
+                    return TEST_EVENT.equals(eventType);
+                }
+
+                public void handle(OutboxEvent event) {
+                    action.accept(event);
+                }
+            };
+        }
+    }
+}
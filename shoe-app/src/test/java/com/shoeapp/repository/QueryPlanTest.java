@@ -0,0 +1,92 @@
+package com.shoeapp.repository;
+
+import com.shoeapp.web.RequestStatementCounter;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs EXPLAIN for the SQL behind the repository queries and checks that each one is
+ * served by its index, so dropping or reshaping an index fails the build.
+ */
+@SpringBootTest
+class QueryPlanTest {
+
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    // The SQL mirrors the repository's predicates and ordering, and the index must show up with an
+    // access condition, not just as a sorted scan.
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiterString = " | ", value = {
+            "ShoeRepository.findByBrand | select * from shoes where brand = 'Nike' | IDX_SHOES_BRAND",
+            "ShoeRepository.findByCategory | select * from shoes where category = 'Running' | IDX_SHOES_CATEGORY",
+            "ShoeRepository.findByPriceBetween | select * from shoes where price between 10 and 20 | IDX_SHOES_PRICE",
+            "ShoeRepository.findPageAfterCreatedAt | select * from shoes where created_at >= timestamp '2024-01-01 00:00:00' and (created_at > timestamp '2024-01-01 00:00:00' or (created_at = timestamp '2024-01-01 00:00:00' and id > 5)) order by created_at, id | IDX_SHOES_CREATED_AT_ID",
+            "CartItemRepository.findByUserAndOrderIsNull | select * from cart_items where user_id = 1 and order_id is null | IDX_CART_ITEMS_USER_ORDER_SHOE",
+            "CartItemRepository.findByUserIdAndShoeIdAndOrderIsNull | select * from cart_items where user_id = 1 and shoe_id = 2 and order_id is null | IDX_CART_ITEMS_USER_ORDER_SHOE",
+            "OrderRepository.findWithLinesById | select * from orders o left join order_lines l on o.id = l.order_id where o.id = 1 | IDX_ORDER_LINES_ORDER"
+    })
+    void queryUsesIndex(String query, String sql, String index) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+
+        assertThat(plan).as(query).containsPattern("/\\* PUBLIC\\.(" + index + "):");
+    }
+
+    // EXPLAINs the statement Hibernate actually sends. H2 backs orders.user_id with an index of its
+    // own and picks it over ours when they tie, so the plan may name either; PostgreSQL has no
+    // implicit FK indexes and relies on ours, which must therefore lead with the same column.
+    @Test
+    void historyQueryIsServedByTheUserIndex() {
+        CAPTURED.set(new ArrayList<>());
+        try {
+            orderRepository.findHistoryByUserId(1L);
+            String sql = CAPTURED.get().stream().filter(statement -> statement.contains(" from orders ")).findFirst().orElseThrow();
+
+            String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, 1L);
+
+            assertThat(plan).containsPattern("/\\* PUBLIC\\.(IDX_ORDERS_USER_DATE|FK\\w+): USER_ID = \\?1 \\*/");
+            assertThat(plan).containsPattern("/\\* PUBLIC\\.IDX_ORDER_LINES_ORDER: ORDER_ID = ");
+        } finally {
+            CAPTURED.remove();
+        }
+        assertThat(jdbcTemplate.queryForList("SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.INDEX_COLUMNS " +
+                "WHERE INDEX_NAME = 'IDX_ORDERS_USER_DATE' ORDER BY ORDINAL_POSITION", String.class))
+                .containsExactly("USER_ID", "ORDER_DATE");
+    }
+
+    @TestConfiguration
+    static class StatementCapture {
+
+        // Replaces the statement counter for this context, so it keeps counting as well
+        @Bean
+        HibernatePropertiesCustomizer capturingStatementInspector() {
+            StatementInspector counter = new RequestStatementCounter();
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                List<String> captured = CAPTURED.get();
+                if (captured != null) {
+                    captured.add(sql);
+                }
+                return counter.inspect(sql);
+            });
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.shoeapp.search;
+
+import com.shoeapp.dto.request.ShoeSearchRequest;
+import com.shoeapp.entity.Shoe;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShoeSearchIndexTest {
+
+    private ShoeSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ShoeSearchIndex();
+        index.index(shoe(1L, "Air Zoom Pegasus", "Nike", "Running", "42", "120", "Responsive cushioning"));
+        index.index(shoe(2L, "Ultraboost", "Adidas", "Running", "43", "180", "Boost foam with air mesh"));
+        index.index(shoe(3L, "Air Jordan 1", "Nike", "Basketball", "42", "170", "Classic court shoe"));
+    }
+
+    @Test
+    void matchesWordPrefixesInNameAndDescription() {
+        ShoeSearchIndex.SearchResult result = index.search(ShoeSearchRequest.builder().q("AIR").build(), 0, 10);
+
+        // Name matches rank above description-only matches
+        assertThat(result.shoeIds()).containsExactly(3L, 1L, 2L);
+        assertThat(index.search(ShoeSearchRequest.builder().q("peg cush").build(), 0, 10).shoeIds())
+                .containsExactly(1L);
+    }
+
+    @Test
+    void facetCountsIgnoreTheirOwnFilter() {
+        ShoeSearchIndex.SearchResult result = index.search(ShoeSearchRequest.builder()
+                .brand(List.of("nike"))
+                .category(List.of("Running"))
+                .build(), 0, 10);
+
+        assertThat(result.shoeIds()).containsExactly(1L);
+        assertThat(result.facets().get(ShoeSearchIndex.BRAND)).containsEntry("Nike", 1).containsEntry("Adidas", 1);
+        assertThat(result.facets().get(ShoeSearchIndex.CATEGORY)).containsEntry("Running", 1).containsEntry("Basketball", 1);
+    }
+
+    @Test
+    void priceRangeIsInclusive() {
+        ShoeSearchIndex.SearchResult result = index.search(ShoeSearchRequest.builder()
+                .minPrice(new BigDecimal("120"))
+                .maxPrice(new BigDecimal("170"))
+                .sort(ShoeSearchIndex.SORT_PRICE_DESC)
+                .build(), 0, 10);
+
+        assertThat(result.shoeIds()).containsExactly(3L, 1L);
+    }
+
+    @Test
+    void updatesAndDeletesReplacePostings() {
+        index.index(shoe(1L, "Pegasus Trail", "Nike", "Trail", "42", "130", null));
+        index.remove(3L);
+
+        assertThat(index.search(ShoeSearchRequest.builder().q("air").build(), 0, 10).shoeIds()).containsExactly(2L);
+        assertThat(index.search(ShoeSearchRequest.builder().q("trail").build(), 0, 10).shoeIds()).containsExactly(1L);
+        assertThat(index.search(new ShoeSearchRequest(), 0, 10).facets().get(ShoeSearchIndex.CATEGORY))
+                .doesNotContainKey("Basketball");
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    private static Shoe shoe(Long id, String name, String brand, String category, String size, String price,
+                             String description) {
+        return Shoe.builder()
+                .id(id)
+                .name(name)
+                .brand(brand)
+                .category(category)
+                .size(size)
+                .color("Black")
+                .price(new BigDecimal(price))
+                .stock(10)
+                .description(description)
+                .build();
+    }
+}
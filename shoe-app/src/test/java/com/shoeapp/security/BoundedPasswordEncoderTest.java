@@ -0,0 +1,95 @@
+package com.shoeapp.security;
+
+import com.shoeapp.dto.request.LoginRequest;
+import com.shoeapp.entity.User;
+import com.shoeapp.exception.ServiceUnavailableException;
+import com.shoeapp.repository.UserRepository;
+import com.shoeapp.service.AuthService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// One above the cheapest strength, so there is a weaker hash to upgrade from
+@SpringBootTest(properties = "app.security.bcrypt.strength=5")
+class BoundedPasswordEncoderTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtPrincipalCache principalCache;
+
+    @Test
+    void loginRehashesPasswordsMadeWithALowerStrength() {
+        String username = "rehash-" + UUID.randomUUID().toString().substring(0, 8);
+        String oldHash = new BCryptPasswordEncoder(passwordEncoder.getStrength() - 1).encode("secret-password");
+        userRepository.save(User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .password(oldHash)
+                .role("ROLE_USER")
+                .build());
+        assertThat(passwordEncoder.upgradeEncoding(oldHash)).isTrue();
+        principalCache.put("token-of-" + username, userDetailsService.loadUserByUsername(username),
+                new Date(System.currentTimeMillis() + 60_000));
+
+        authService.login(new LoginRequest(username, "secret-password"));
+
+        String newHash = userRepository.findByUsername(username).orElseThrow().getPassword();
+        assertThat(newHash).isNotEqualTo(oldHash);
+        assertThat(passwordEncoder.upgradeEncoding(newHash)).isFalse();
+        assertThat(passwordEncoder.matches("secret-password", newHash)).isTrue();
+        assertThat(principalCache.get("token-of-" + username)).isNull();
+        assertThat(passwordEncoder.upgradeEncoding(
+                new BCryptPasswordEncoder(passwordEncoder.getStrength() + 1).encode("secret-password"))).isFalse();
+    }
+
+    @Test
+    void hashesBeyondTheQueueAreRejected() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(encoder, "configuredStrength", 12);
+        ReflectionTestUtils.setField(encoder, "threads", 1);
+        ReflectionTestUtils.setField(encoder, "queueCapacity", 1);
+        encoder.init();
+
+        try {
+            // One hash runs and one waits; the others find the queue full
+            List<CompletableFuture<String>> hashes = IntStream.range(0, 4)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> encoder.encode("password-" + i)))
+                    .toList();
+            long rejected = hashes.stream().filter(hash -> {
+                try {
+                    hash.join();
+                    return false;
+                } catch (CompletionException ex) {
+                    return ex.getCause() instanceof ServiceUnavailableException;
+                }
+            }).count();
+
+            assertThat(rejected).isPositive();
+        } finally {
+            encoder.shutdown();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.shoeapp.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "app.rate-limit.login.per-username=2/1h",
+        "app.rate-limit.catalog.per-client=3/1h"
+})
+@AutoConfigureMockMvc
+class RateLimitFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void loginAttemptsAreLimitedPerUsername() throws Exception {
+        String username = "guess-" + UUID.randomUUID();
+        mockMvc.perform(login(username)).andExpect(status().isUnauthorized());
+        mockMvc.perform(login(username.toUpperCase())).andExpect(status().isUnauthorized());
+
+        mockMvc.perform(login(username))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, not("0")))
+                .andExpect(jsonPath("$.status").value(429));
+
+        mockMvc.perform(login("other-" + UUID.randomUUID())).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void catalogRequestsAreLimitedPerClientAddress() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(catalog("10.1.1.1")).andExpect(status().isOk());
+        }
+        mockMvc.perform(catalog("10.1.1.1")).andExpect(status().isTooManyRequests());
+        mockMvc.perform(catalog("10.1.1.2")).andExpect(status().isOk());
+    }
+
+    @Test
+    void tokensComeBackAtTheRefillRate() {
+        long second = TimeUnit.SECONDS.toNanos(1);
+        TokenBucket bucket = new TokenBucket(2, 2 * second, 0);
+
+        assertThat(bucket.tryConsume(0)).isZero();
+        assertThat(bucket.tryConsume(0)).isZero();
+        assertThat(bucket.tryConsume(0)).isEqualTo(second);
+        assertThat(bucket.tryConsume(second)).isZero();
+        // Idle time refills the bucket, but never beyond its capacity
+        assertThat(bucket.tryConsume(10 * second)).isZero();
+        assertThat(bucket.tryConsume(10 * second)).isZero();
+        assertThat(bucket.tryConsume(10 * second)).isPositive();
+    }
+
+    private static MockHttpServletRequestBuilder login(String username) {
+        return post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"" + username + "\",\"password\":\"wrong\"}");
+    }
+
+    private static MockHttpServletRequestBuilder catalog(String address) {
+        return get("/api/shoes/brand/RateLimited").with(request -> {
+            request.setRemoteAddr(address);
+            return request;
+        });
+    }
+}
@@ -0,0 +1,67 @@
+package com.shoeapp.service.impl;
+
+import com.shoeapp.dto.request.SignupRequest;
+import com.shoeapp.dto.response.AvailabilityResponse;
+import com.shoeapp.exception.BadRequestException;
+import com.shoeapp.repository.UserRepository;
+import com.shoeapp.service.AuthService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class AuthServiceImplTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void duplicateSignupsReportWhichValueIsTaken() {
+        String username = "auth-" + UUID.randomUUID().toString().substring(0, 8);
+        authService.register(signup(username, username + "@example.com"));
+
+        assertThatThrownBy(() -> authService.register(signup(username, "other-" + username + "@example.com")))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Username is already taken");
+        assertThatThrownBy(() -> authService.register(signup("other-" + username, username + "@example.com")))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Email is already in use");
+        assertThat(userRepository.findByEmail(username + "@example.com")).get()
+                .extracting("username").isEqualTo(username);
+    }
+
+    @Test
+    void availabilityCoversNewSignupsAndOnlyTheValuesAsked() {
+        String username = "free-" + UUID.randomUUID().toString().substring(0, 8);
+        String email = username + "@example.com";
+
+        AvailabilityResponse before = authService.checkAvailability(username, email);
+        assertThat(before.getUsernameAvailable()).isTrue();
+        assertThat(before.getEmailAvailable()).isTrue();
+
+        authService.register(signup(username, email));
+
+        AvailabilityResponse after = authService.checkAvailability(username, null);
+        assertThat(after.getUsernameAvailable()).isFalse();
+        assertThat(after.getEmailAvailable()).isNull();
+        assertThat(authService.checkAvailability(null, email).getEmailAvailable()).isFalse();
+        assertThatThrownBy(() -> authService.checkAvailability(" ", null))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private static SignupRequest signup(String username, String email) {
+        SignupRequest request = new SignupRequest();
+        request.setUsername(username);
+        request.setEmail(email);
+        request.setPassword("secret123");
+        return request;
+    }
+}
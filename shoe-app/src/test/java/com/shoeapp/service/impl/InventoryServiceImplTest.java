@@ -0,0 +1,142 @@
+package com.shoeapp.service.impl;
+
+import com.shoeapp.dto.response.ShoeResponse;
+import com.shoeapp.entity.CartItem;
+import com.shoeapp.entity.Shoe;
+import com.shoeapp.exception.BadRequestException;
+import com.shoeapp.repository.ShoeRepository;
+import com.shoeapp.service.InventoryService;
+import com.shoeapp.service.ShoeService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Slf4j
+class InventoryServiceImplTest {
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ShoeRepository shoeRepository;
+
+    @Autowired
+    private ShoeService shoeService;
+
+    @Test
+    void concurrentReservationsOnHotShoeNeverOversell() throws Exception {
+        int stock = 500;
+        int threads = 32;
+        int attemptsPerThread = 40;
+        Shoe shoe = shoeRepository.save(shoe("Hot Runner", stock));
+
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    try {
+                        inventoryService.reserveStock(List.of(line(shoe, 1)));
+                        reserved.incrementAndGet();
+                    } catch (BadRequestException ex) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        executor.shutdown();
+
+        int attempts = threads * attemptsPerThread;
+        log.info("{} reservations on one shoe from {} threads in {} ms", attempts, threads, elapsedMillis);
+
+        // Generous on purpose: row locks serialize the threads, but no reservation should stall
+        assertThat(elapsedMillis).isLessThan(TimeUnit.SECONDS.toMillis(20));
+        assertThat(reserved.get()).isEqualTo(stock);
+        assertThat(rejected.get()).isEqualTo(attempts - stock);
+        assertThat(shoeRepository.findById(shoe.getId()).orElseThrow().getStock()).isZero();
+    }
+
+    @Test
+    void failedLineRollsBackTheWholeReservation() {
+        Shoe available = shoeRepository.save(shoe("Available", 5));
+        Shoe soldOut = shoeRepository.save(shoe("Sold Out", 1));
+
+        assertThatThrownBy(() -> inventoryService.reserveStock(List.of(line(available, 2), line(soldOut, 2))))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Not enough stock for Sold Out");
+
+        assertThat(shoeRepository.findById(available.getId()).orElseThrow().getStock()).isEqualTo(5);
+        assertThat(shoeRepository.findById(soldOut.getId()).orElseThrow().getStock()).isEqualTo(1);
+    }
+
+    @Test
+    void linesForTheSameShoeAreMerged() {
+        Shoe shoe = shoeRepository.save(shoe("Merged", 3));
+
+        inventoryService.reserveStock(List.of(line(shoe, 1), line(shoe, 2)));
+
+        assertThat(shoeRepository.findById(shoe.getId()).orElseThrow().getStock()).isZero();
+    }
+
+    @Test
+    void reservationsEvictTheCachedShoeAndItsListings() {
+        Shoe saved = shoe("Cached", 10);
+        saved.setBrand("Inventory-" + UUID.randomUUID());
+        Shoe shoe = shoeRepository.save(saved);
+        assertThat(shoeService.getShoeById(shoe.getId()).getStock()).isEqualTo(10);
+        assertThat(shoeService.getShoesByBrand(shoe.getBrand())).extracting(ShoeResponse::getStock).containsExactly(10);
+
+        inventoryService.reserveStock(List.of(line(shoe, 3)));
+
+        assertThat(shoeService.getShoeById(shoe.getId()).getStock()).isEqualTo(7);
+        assertThat(shoeService.getShoesByBrand(shoe.getBrand())).extracting(ShoeResponse::getStock).containsExactly(7);
+    }
+
+    private Shoe shoe(String name, int stock) {
+        return Shoe.builder()
+                .name(name)
+                .brand("Test")
+                .category("Running")
+                .size("42")
+                .color("Black")
+                .price(new BigDecimal("99.99"))
+                .stock(stock)
+                .build();
+    }
+
+    private CartItem line(Shoe shoe, int quantity) {
+        return CartItem.builder()
+                .shoe(shoe)
+                .quantity(quantity)
+                .build();
+    }
+}
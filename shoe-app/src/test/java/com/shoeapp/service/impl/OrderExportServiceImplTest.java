@@ -0,0 +1,137 @@
+package com.shoeapp.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shoeapp.entity.Order;
+import com.shoeapp.entity.OrderLine;
+import com.shoeapp.entity.Shoe;
+import com.shoeapp.entity.User;
+import com.shoeapp.repository.OrderRepository;
+import com.shoeapp.repository.ShoeRepository;
+import com.shoeapp.repository.UserRepository;
+import com.shoeapp.service.OrderExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class OrderExportServiceImplTest {
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShoeRepository shoeRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String username;
+
+    @BeforeEach
+    void setUp() {
+        username = "export-" + UUID.randomUUID().toString().substring(0, 8);
+        User user = userRepository.save(User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .password("not-used")
+                .role("ROLE_USER")
+                .build());
+        Shoe shoe = shoeRepository.save(Shoe.builder()
+                .name("Runner")
+                .brand("Nike")
+                .category("Running")
+                .size("42")
+                .color("Black")
+                .price(new BigDecimal("50.00"))
+                .stock(100)
+                .build());
+
+        Order withItems = order(user, "Smith, \"Jr\"");
+        withItems.setLines(List.of(line(withItems, shoe, 2), line(withItems, shoe, 1)));
+        orderRepository.save(withItems);
+        orderRepository.save(order(user, "Empty"));
+    }
+
+    @Test
+    void ndjsonWritesOneLinePerOrderWithItsItems() throws IOException {
+        List<JsonNode> orders = new ArrayList<>();
+        for (String line : export(OrderExportService.Format.NDJSON).split("\n")) {
+            JsonNode order = objectMapper.readTree(line);
+            if (username.equals(order.get("username").asText())) {
+                orders.add(order);
+            }
+        }
+
+        assertThat(orders).hasSize(2);
+        assertThat(orders.get(0).get("lastName").asText()).isEqualTo("Smith, \"Jr\"");
+        assertThat(orders.get(0).get("items")).hasSize(2);
+        assertThat(orders.get(0).get("items").get(0).get("totalPrice").decimalValue()).isEqualByComparingTo("100.00");
+        assertThat(orders.get(1).get("items")).isEmpty();
+    }
+
+    @Test
+    void csvWritesOneLinePerItemAndQuotesWhereNeeded() throws IOException {
+        String[] lines = export(OrderExportService.Format.CSV).split("\r\n");
+
+        assertThat(lines[0]).startsWith("order_id,user_id,username,");
+        List<String> rows = new ArrayList<>();
+        for (String line : lines) {
+            if (line.contains("," + username + ",")) {
+                rows.add(line);
+            }
+        }
+        assertThat(rows).hasSize(3);
+        assertThat(rows.get(0)).contains(",\"Smith, \"\"Jr\"\"\",").endsWith(",Runner,Nike,42,Black,50.00,2,100.00");
+        // The order without items keeps its line, with empty item columns
+        assertThat(rows.get(2)).contains(",Empty,").endsWith(",,,,,,,,,");
+    }
+
+    private String export(OrderExportService.Format format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orderExportService.exportOrders(format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static Order order(User user, String lastName) {
+        return Order.builder()
+                .user(user)
+                .orderDate(LocalDateTime.now())
+                .totalAmount(new BigDecimal("150.00"))
+                .status("PENDING")
+                .firstName("Ann")
+                .lastName(lastName)
+                .build();
+    }
+
+    private static OrderLine line(Order order, Shoe shoe, int quantity) {
+        return OrderLine.builder()
+                .order(order)
+                .shoeId(shoe.getId())
+                .shoeName(shoe.getName())
+                .shoeBrand(shoe.getBrand())
+                .shoeSize(shoe.getSize())
+                .shoeColor(shoe.getColor())
+                .unitPrice(shoe.getPrice())
+                .quantity(quantity)
+                .build();
+    }
+}
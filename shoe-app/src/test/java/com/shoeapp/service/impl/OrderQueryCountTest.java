@@ -0,0 +1,197 @@
+package com.shoeapp.service.impl;
+
+import com.shoeapp.dto.request.CartItemRequest;
+import com.shoeapp.dto.request.OrderRequest;
+import com.shoeapp.dto.response.CartResponse;
+import com.shoeapp.dto.response.OrderResponse;
+import com.shoeapp.entity.CartItem;
+import com.shoeapp.entity.Order;
+import com.shoeapp.entity.OrderLine;
+import com.shoeapp.entity.Shoe;
+import com.shoeapp.entity.User;
+import com.shoeapp.repository.CartItemRepository;
+import com.shoeapp.repository.OrderRepository;
+import com.shoeapp.repository.ShoeRepository;
+import com.shoeapp.repository.UserRepository;
+import com.shoeapp.security.UserPrincipal;
+import com.shoeapp.service.CartService;
+import com.shoeapp.service.OrderService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The outbox poller would add its own statements to the session factory's counts
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.outbox.poll-interval-ms=3600000"})
+class OrderQueryCountTest {
+
+    private static final int ORDERS = 5;
+    private static final int ITEMS_PER_ORDER = 4;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShoeRepository shoeRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+    private List<Shoe> shoes;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .username("n1-" + UUID.randomUUID().toString().substring(0, 8))
+                .email(UUID.randomUUID() + "@example.com")
+                .password("not-used")
+                .role("ROLE_USER")
+                .build());
+
+        shoes = new ArrayList<>();
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            shoes.add(shoeRepository.save(Shoe.builder()
+                    .name("Shoe " + i)
+                    .brand("Brand " + i)
+                    .category("Running")
+                    .size("42")
+                    .color("Black")
+                    .price(new BigDecimal("50.00"))
+                    .stock(100)
+                    .build()));
+        }
+
+        UserPrincipal principal = UserPrincipal.create(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void orderHistoryLoadsInConstantStatements() {
+        for (int o = 0; o < ORDERS; o++) {
+            Order order = Order.builder()
+                    .user(user)
+                    .orderDate(LocalDateTime.now().minusDays(o))
+                    .totalAmount(new BigDecimal("200.00"))
+                    .status("PENDING")
+                    .build();
+            order.setLines(shoes.stream().map(shoe -> OrderLine.builder()
+                    .order(order)
+                    .shoeId(shoe.getId())
+                    .shoeName(shoe.getName())
+                    .shoeBrand(shoe.getBrand())
+                    .shoeSize(shoe.getSize())
+                    .shoeColor(shoe.getColor())
+                    .unitPrice(shoe.getPrice())
+                    .quantity(1)
+                    .build()).toList());
+            orderRepository.save(order);
+        }
+
+        Statistics statistics = statistics();
+        List<OrderResponse> orders = orderService.getUserOrders();
+
+        assertThat(orders).hasSize(ORDERS);
+        assertThat(orders).allSatisfy(order -> assertThat(order.getItems()).hasSize(ITEMS_PER_ORDER));
+        // The user comes from the principal, so just one for orders with their lines
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void cartLoadsInConstantStatements() {
+        for (Shoe shoe : shoes) {
+            cartItemRepository.save(CartItem.builder().user(user).shoe(shoe).quantity(2).build());
+        }
+
+        Statistics statistics = statistics();
+        CartResponse cart = cartService.getCart();
+
+        assertThat(cart.getItems()).hasSize(ITEMS_PER_ORDER);
+        assertThat(cart.getTotalItems()).isEqualTo(2 * ITEMS_PER_ORDER);
+        // One to rehydrate the cart lines, one for all their shoes
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void checkoutStatementsDoNotGrowWithCartLines() {
+        // Warms the id pools and today's statistics row
+        fillCart(ITEMS_PER_ORDER);
+        placeOrder();
+
+        // Only the checkout is counted: it evicts the reserved shoes, so adding them to the
+        // next cart reloads them
+        fillCart(1);
+        Statistics statistics = statistics();
+        placeOrder();
+        long singleLine = statistics.getPrepareStatementCount();
+
+        fillCart(ITEMS_PER_ORDER);
+        statistics.clear();
+        OrderResponse order = placeOrder();
+
+        assertThat(order.getItems()).hasSize(ITEMS_PER_ORDER);
+        // The order and line inserts and the cart line deletes are batched
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(singleLine);
+    }
+
+    private void fillCart(int lines) {
+        for (Shoe shoe : shoes.subList(0, lines)) {
+            cartService.addToCart(CartItemRequest.builder().shoeId(shoe.getId()).quantity(1).build());
+        }
+    }
+
+    private OrderResponse placeOrder() {
+        return orderService.createOrder(OrderRequest.builder()
+                .firstName("Query")
+                .lastName("Count")
+                .address("1 Main Street")
+                .city("Springfield")
+                .state("IL")
+                .zipCode("62701")
+                .country("US")
+                .phoneNumber("555 0100")
+                .paymentMethod("CREDIT_CARD")
+                .shippingMethod("STANDARD")
+                .build(), user);
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
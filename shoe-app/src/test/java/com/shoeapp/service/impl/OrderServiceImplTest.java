@@ -0,0 +1,136 @@
+package com.shoeapp.service.impl;
+
+import com.shoeapp.config.OrderLineBackfillInitializer;
+import com.shoeapp.dto.request.CartItemRequest;
+import com.shoeapp.dto.request.OrderRequest;
+import com.shoeapp.dto.response.CartItemResponse;
+import com.shoeapp.dto.response.OrderResponse;
+import com.shoeapp.entity.CartItem;
+import com.shoeapp.entity.Order;
+import com.shoeapp.entity.Shoe;
+import com.shoeapp.entity.User;
+import com.shoeapp.repository.CartItemRepository;
+import com.shoeapp.repository.OrderRepository;
+import com.shoeapp.repository.ShoeRepository;
+import com.shoeapp.repository.UserRepository;
+import com.shoeapp.security.UserPrincipal;
+import com.shoeapp.service.CartService;
+import com.shoeapp.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+class OrderServiceImplTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OrderLineBackfillInitializer orderLineBackfillInitializer;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShoeRepository shoeRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    private User user;
+    private Shoe shoe;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .username("lines-" + UUID.randomUUID().toString().substring(0, 8))
+                .email(UUID.randomUUID() + "@example.com")
+                .password("not-used")
+                .role("ROLE_USER")
+                .build());
+        shoe = shoeRepository.save(Shoe.builder()
+                .name("Runner")
+                .brand("Brand")
+                .category("Running")
+                .size("42")
+                .color("Black")
+                .price(new BigDecimal("60.00"))
+                .stock(10)
+                .build());
+
+        UserPrincipal principal = UserPrincipal.create(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void historyShowsLinesAsTheyWereAtCheckout() {
+        cartService.addToCart(new CartItemRequest(shoe.getId(), 2));
+        OrderResponse placed = orderService.createOrder(OrderRequest.builder()
+                .firstName("Test")
+                .lastName("User")
+                .address("1 Main Street")
+                .city("Springfield")
+                .state("IL")
+                .zipCode("62701")
+                .country("US")
+                .phoneNumber("555 0100")
+                .build(), user);
+
+        Shoe changed = shoeRepository.findById(shoe.getId()).orElseThrow();
+        changed.setName("Runner 2");
+        changed.setPrice(new BigDecimal("75.00"));
+        shoeRepository.save(changed);
+
+        assertThat(orderService.getOrderById(placed.getId()).getItems())
+                .extracting(CartItemResponse::getShoeName, CartItemResponse::getShoePrice,
+                        CartItemResponse::getTotalPrice)
+                .containsExactly(tuple("Runner", new BigDecimal("60.00"), new BigDecimal("120.00")));
+        assertThat(orderService.getUserOrders()).singleElement()
+                .satisfies(order -> assertThat(order.getItems()).extracting(CartItemResponse::getShoeName)
+                        .containsExactly("Runner"));
+    }
+
+    @Test
+    void linesOfOlderOrdersAreBackfilledFromTheirCartItems() {
+        Order order = orderRepository.save(Order.builder()
+                .user(user)
+                .orderDate(LocalDateTime.now())
+                .totalAmount(new BigDecimal("180.00"))
+                .status("DELIVERED")
+                .build());
+        CartItem item = cartItemRepository.save(
+                CartItem.builder().user(user).shoe(shoe).order(order).quantity(3).build());
+
+        orderLineBackfillInitializer.backfill();
+
+        assertThat(orderService.getOrderById(order.getId()).getItems())
+                .extracting(CartItemResponse::getShoeId, CartItemResponse::getQuantity,
+                        CartItemResponse::getTotalPrice)
+                .containsExactly(tuple(shoe.getId(), 3, new BigDecimal("180.00")));
+        assertThat(cartItemRepository.findById(item.getId())).isEmpty();
+    }
+}
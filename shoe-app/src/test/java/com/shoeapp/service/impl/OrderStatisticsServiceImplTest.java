@@ -0,0 +1,122 @@
+package com.shoeapp.service.impl;
+
+import com.shoeapp.dto.request.CartItemRequest;
+import com.shoeapp.dto.request.OrderRequest;
+import com.shoeapp.entity.Shoe;
+import com.shoeapp.entity.User;
+import com.shoeapp.outbox.OutboxDispatcher;
+import com.shoeapp.repository.ShoeRepository;
+import com.shoeapp.repository.UserRepository;
+import com.shoeapp.security.UserPrincipal;
+import com.shoeapp.service.CartService;
+import com.shoeapp.service.OrderService;
+import com.shoeapp.service.OrderStatisticsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Polling is pushed out of the way so the test decides when the outbox is drained
+@SpringBootTest(properties = "app.outbox.poll-interval-ms=3600000")
+class OrderStatisticsServiceImplTest {
+
+    @Autowired
+    private OrderStatisticsService orderStatisticsService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShoeRepository shoeRepository;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void incrementalRollupMatchesARebuild() {
+        outboxDispatcher.dispatch();
+        Map<String, Object> before = orderStatisticsService.getOrderStatistics("all");
+
+        Shoe shoe = shoeRepository.save(Shoe.builder()
+                .name("Counted")
+                .brand("Brand")
+                .category("Running")
+                .size("42")
+                .color("Black")
+                .price(new BigDecimal("30.00"))
+                .stock(100)
+                .build());
+        Long shipped = placeOrder(shoe, 1);
+        Long cancelled = placeOrder(shoe, 2);
+        Long pending = placeOrder(shoe, 3);
+
+        orderService.updateOrderStatus(shipped, "PROCESSING");
+        orderService.markAsShipped(shipped);
+        orderService.updateOrderStatus(cancelled, "CANCELLED");
+        // Not a change, so it must not move anything
+        orderService.updateOrderStatus(pending, "PENDING");
+        outboxDispatcher.dispatch();
+
+        Map<String, Object> incremental = orderStatisticsService.getOrderStatistics("all");
+        assertThat(delta(incremental, before, "totalOrders")).isEqualTo(3);
+        assertThat(delta(incremental, before, "pendingOrders")).isEqualTo(1);
+        assertThat(delta(incremental, before, "processingOrders")).isZero();
+        assertThat(delta(incremental, before, "shippedOrders")).isEqualTo(1);
+        assertThat(delta(incremental, before, "cancelledOrders")).isEqualTo(1);
+        assertThat((BigDecimal) incremental.get("totalRevenue"))
+                .isEqualByComparingTo(((BigDecimal) before.get("totalRevenue")).add(new BigDecimal("180.00")));
+
+        orderStatisticsService.rebuild();
+
+        assertThat(incremental).usingRecursiveComparison()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .isEqualTo(orderStatisticsService.getOrderStatistics("all"));
+    }
+
+    private Long placeOrder(Shoe shoe, int quantity) {
+        User user = userRepository.save(User.builder()
+                .username("stats-" + UUID.randomUUID().toString().substring(0, 8))
+                .email(UUID.randomUUID() + "@example.com")
+                .password("not-used")
+                .role("ROLE_USER")
+                .build());
+        UserPrincipal principal = UserPrincipal.create(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        cartService.addToCart(new CartItemRequest(shoe.getId(), quantity));
+        return orderService.createOrder(OrderRequest.builder()
+                .firstName("Test")
+                .lastName("User")
+                .address("1 Main Street")
+                .city("Springfield")
+                .state("IL")
+                .zipCode("62701")
+                .country("US")
+                .phoneNumber("555 0100")
+                .build(), user).getId();
+    }
+
+    private static long delta(Map<String, Object> after, Map<String, Object> before, String key) {
+        return (Long) after.get(key) - (Long) before.get(key);
+    }
+}
@@ -0,0 +1,84 @@
+package com.shoeapp.service.impl;
+
+import com.shoeapp.dto.response.ShoeImportJobResponse;
+import com.shoeapp.dto.response.ShoeResponse;
+import com.shoeapp.service.ShoeImportService;
+import com.shoeapp.service.ShoeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.shoes.import.chunk-size=2")
+class ShoeImportServiceImplTest {
+
+    @Autowired
+    private ShoeImportService shoeImportService;
+
+    @Autowired
+    private ShoeService shoeService;
+
+    @Test
+    void csvRowsAreUpsertedAndInvalidRowsReported() throws Exception {
+        String brand = "Import-" + UUID.randomUUID();
+        String csv = "name,brand,category,size,color,price,stock,description\r\n"
+                + "Runner," + brand + ",Running,42,Black,99.50,10,\"Light, fast\"\r\n"
+                + "Runner," + brand + ",Running,43,Black,99.50,5,\r\n"
+                + "," + brand + ",Running,42,Black,10,1,\r\n"
+                + "Walker," + brand + ",Walking,42,Brown,abc,1,\r\n"
+                // Same key as the first row, in a later chunk
+                + "Runner," + brand + ",Trail,42,Black,89.00,7,\"Now \"\"trail\"\"\nready\"\r\n";
+
+        ShoeImportJobResponse job = await(shoeImportService.startImport(ShoeImportService.Format.CSV,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))));
+
+        assertThat(job.getStatus()).isEqualTo("COMPLETED");
+        assertThat(job.getRowsProcessed()).isEqualTo(5);
+        assertThat(job.getCreated()).isEqualTo(2);
+        assertThat(job.getUpdated()).isEqualTo(1);
+        assertThat(job.getFailed()).isEqualTo(2);
+        assertThat(job.getErrors()).extracting(ShoeImportJobResponse.RowError::getRow).containsExactly(3L, 4L);
+        assertThat(job.getErrors().get(1).getMessage()).isEqualTo("Invalid price: abc");
+
+        List<ShoeResponse> shoes = shoeService.getShoesByBrand(brand);
+        assertThat(shoes).hasSize(2);
+        ShoeResponse updated = shoes.stream().filter(shoe -> shoe.getSize().equals("42")).findFirst().orElseThrow();
+        assertThat(updated.getCategory()).isEqualTo("Trail");
+        assertThat(updated.getDescription()).isEqualTo("Now \"trail\"\nready");
+    }
+
+    @Test
+    void cachedListingsAreInvalidatedWhenTheImportEnds() throws Exception {
+        String brand = "Import-" + UUID.randomUUID();
+        String line = "{\"name\":\"Court\",\"brand\":\"" + brand + "\",\"category\":\"Tennis\",\"size\":\"40\","
+                + "\"color\":\"White\",\"price\":70,\"stock\":3}\n";
+        await(shoeImportService.startImport(ShoeImportService.Format.NDJSON,
+                new ByteArrayInputStream(line.getBytes(StandardCharsets.UTF_8))));
+        assertThat(shoeService.getShoesByBrand(brand)).extracting(ShoeResponse::getStock).containsExactly(3);
+
+        String ndjson = line.replace("\"stock\":3", "\"stock\":8") + "{not json}\n";
+        ShoeImportJobResponse job = await(shoeImportService.startImport(ShoeImportService.Format.NDJSON,
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8))));
+
+        assertThat(job.getUpdated()).isEqualTo(1);
+        assertThat(job.getFailed()).isEqualTo(1);
+        assertThat(shoeService.getShoesByBrand(brand)).extracting(ShoeResponse::getStock).containsExactly(8);
+    }
+
+    private ShoeImportJobResponse await(ShoeImportJobResponse job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        ShoeImportJobResponse current = job;
+        while (current.getFinishedAt() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            current = shoeImportService.getJob(job.getJobId());
+        }
+        assertThat(current.getFinishedAt()).as("import finished").isNotNull();
+        return current;
+    }
+}
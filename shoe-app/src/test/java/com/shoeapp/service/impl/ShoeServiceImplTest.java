@@ -0,0 +1,67 @@
+package com.shoeapp.service.impl;
+
+import com.shoeapp.dto.request.ShoeRequest;
+import com.shoeapp.dto.request.ShoeSearchRequest;
+import com.shoeapp.dto.response.ShoeSummaryResponse;
+import com.shoeapp.exception.BadRequestException;
+import com.shoeapp.service.ShoeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+class ShoeServiceImplTest {
+
+    @Autowired
+    private ShoeService shoeService;
+
+    @Test
+    void summariesCarryListFieldsAndAStockFlag() {
+        String brand = "Summary-" + UUID.randomUUID();
+        Long available = shoeService.createShoe(shoeRequest(brand, "Available", 4, "https://cdn.example.com/a.jpg")).getId();
+        Long soldOut = shoeService.createShoe(shoeRequest(brand, "Sold out", 0, null)).getId();
+
+        assertThat(shoeService.getShoeSummariesByBrand(brand))
+                .extracting(ShoeSummaryResponse::getId, ShoeSummaryResponse::getName,
+                        ShoeSummaryResponse::getImageUrl, ShoeSummaryResponse::isInStock)
+                .containsExactly(
+                        tuple(available, "Available", "https://cdn.example.com/a.jpg", true),
+                        tuple(soldOut, "Sold out", null, false));
+        assertThat(shoeService.getShoeSummariesByCategory("Summary category"))
+                .extracting(ShoeSummaryResponse::getId)
+                .contains(available, soldOut);
+    }
+
+    @Test
+    void searchRejectsAnInvertedPriceRange() {
+        ShoeSearchRequest request = ShoeSearchRequest.builder()
+                .minPrice(new BigDecimal("100"))
+                .maxPrice(new BigDecimal("50"))
+                .build();
+
+        assertThatThrownBy(() -> shoeService.searchShoes(request))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Minimum price must not be greater than maximum price");
+    }
+
+    private static ShoeRequest shoeRequest(String brand, String name, int stock, String imageUrl) {
+        return ShoeRequest.builder()
+                .name(name)
+                .brand(brand)
+                .category("Summary category")
+                .size("42")
+                .color("Black")
+                .price(new BigDecimal("70.00"))
+                .stock(stock)
+                .description("Not part of the summary")
+                .imageUrl(imageUrl)
+                .build();
+    }
+}
@@ -0,0 +1,165 @@
+package com.shoeapp.web;
+
+import com.shoeapp.dto.request.ShoeRequest;
+import com.shoeapp.dto.response.ShoeResponse;
+import com.shoeapp.entity.CartItem;
+import com.shoeapp.entity.Shoe;
+import com.shoeapp.repository.ShoeRepository;
+import com.shoeapp.service.InventoryService;
+import com.shoeapp.service.ShoeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CatalogCacheFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ShoeService shoeService;
+
+    @Autowired
+    private ShoeRepository shoeRepository;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private CatalogCacheFilter catalogCacheFilter;
+
+    @Test
+    void repeatedRequestsAreAnsweredWithoutTheController() throws Exception {
+        ShoeResponse shoe = shoeService.createShoe(shoeRequest("Cached"));
+        // The full listing isn't in any service-level cache
+        String url = "/api/shoes";
+
+        String etag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=60"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+
+        // Written behind the service's back, so no catalogue change is announced
+        Shoe entity = shoeRepository.findById(shoe.getId()).orElseThrow();
+        entity.setName("Renamed quietly");
+        shoeRepository.save(entity);
+
+        mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(containsString("\"Cached\"")));
+    }
+
+    @Test
+    void catalogChangesInvalidateCachedBodies() throws Exception {
+        ShoeResponse shoe = shoeService.createShoe(shoeRequest("Before"));
+        String url = "/api/shoes/" + shoe.getId();
+        String etag = mockMvc.perform(get(url)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        shoeService.updateShoe(shoe.getId(), shoeRequest("After"));
+
+        MvcResult result = mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"After\"")))
+                .andReturn();
+        assertThat(result.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+    }
+
+    @Test
+    void bodiesChangedWithoutACatalogChangeGetANewerLastModified() throws Exception {
+        ShoeResponse shoe = shoeService.createShoe(shoeRequest("Stocked"));
+        String url = "/api/shoes/" + shoe.getId();
+        MockHttpServletResponse first = mockMvc.perform(get(url)).andReturn().getResponse();
+
+        // A checkout changes stock but not the catalogue version
+        inventoryService.reserveStock(List.of(CartItem.builder()
+                .shoe(shoeRepository.findById(shoe.getId()).orElseThrow())
+                .quantity(2)
+                .build()));
+
+        Duration ttl = (Duration) ReflectionTestUtils.getField(catalogCacheFilter, "cacheTtl");
+        ReflectionTestUtils.setField(catalogCacheFilter, "cacheTtl", Duration.ZERO);
+        try {
+            MockHttpServletResponse changed = mockMvc.perform(get(url)
+                            .header(HttpHeaders.IF_MODIFIED_SINCE, first.getHeader(HttpHeaders.LAST_MODIFIED)))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse();
+            assertThat(changed.getHeader(HttpHeaders.ETAG)).isNotEqualTo(first.getHeader(HttpHeaders.ETAG));
+            assertThat(changed.getDateHeader(HttpHeaders.LAST_MODIFIED))
+                    .isGreaterThan(first.getDateHeader(HttpHeaders.LAST_MODIFIED));
+
+            // Re-rendered again, unchanged this time
+            mockMvc.perform(get(url))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, changed.getHeader(HttpHeaders.ETAG)))
+                    .andExpect(header().string(HttpHeaders.LAST_MODIFIED, changed.getHeader(HttpHeaders.LAST_MODIFIED)));
+        } finally {
+            ReflectionTestUtils.setField(catalogCacheFilter, "cacheTtl", ttl);
+        }
+    }
+
+    @Test
+    void largeBodiesAreServedGzipped() throws Exception {
+        String brand = "Brand-" + UUID.randomUUID();
+        for (int i = 0; i < 20; i++) {
+            ShoeRequest request = shoeRequest("Gzipped " + i);
+            request.setBrand(brand);
+            shoeService.createShoe(request);
+        }
+
+        MvcResult result = mockMvc.perform(get("/api/shoes/brand/" + brand)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+
+        assertThat(gunzip(result.getResponse().getContentAsByteArray())).contains("\"Gzipped 19\"");
+    }
+
+    private static ShoeRequest shoeRequest(String name) {
+        return ShoeRequest.builder()
+                .name(name)
+                .brand("Nike")
+                .category("Running")
+                .size("42")
+                .color("Black")
+                .price(new BigDecimal("99.00"))
+                .stock(10)
+                .description("A shoe for the catalogue cache test")
+                .build();
+    }
+
+    private static String gunzip(byte[] content) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.shoeapp.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.shoeapp.dto.response.ShoePageResponse;
+import com.shoeapp.dto.response.ShoeResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ShoeJsonCacheTest {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void cachedJsonMatchesRegularSerialization() throws Exception {
+        ShoeResponse shoe = shoe(9001L, "Runner", LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_000_000));
+        ShoePageResponse page = ShoePageResponse.builder().items(List.of(shoe, shoe)).size(2).hasMore(false).build();
+
+        String first = objectMapper.writeValueAsString(page);
+        String second = objectMapper.writeValueAsString(page);
+
+        assertThat(second).isEqualTo(first);
+        JsonNode item = objectMapper.readTree(second).get("items").get(1);
+        assertThat(item.get("name").asText()).isEqualTo("Runner");
+        assertThat(item.get("price").decimalValue()).isEqualByComparingTo("89.90");
+        assertThat(item.get("updatedAt").asText()).isEqualTo("2024-05-01T12:30:15.123");
+        // Pretty printing doesn't use the compact fragment
+        assertThat(objectMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValueAsString(shoe))
+                .contains("\n");
+    }
+
+    @Test
+    void aNewVersionOfTheShoeIsSerializedAgain() throws Exception {
+        LocalDateTime version = LocalDateTime.of(2024, 5, 1, 12, 0);
+        objectMapper.writeValueAsString(shoe(9002L, "Before", version));
+
+        // Same id and version: the cached JSON is served
+        assertThat(objectMapper.writeValueAsString(shoe(9002L, "Unseen", version))).contains("\"Before\"");
+        assertThat(objectMapper.writeValueAsString(shoe(9002L, "After", version.plusSeconds(1))))
+                .contains("\"After\"");
+    }
+
+    private static ShoeResponse shoe(Long id, String name, LocalDateTime updatedAt) {
+        return ShoeResponse.builder()
+                .id(id)
+                .name(name)
+                .brand("Brand")
+                .category("Running")
+                .size("42")
+                .color("Black")
+                .price(new BigDecimal("89.90"))
+                .stock(3)
+                .createdAt(updatedAt)
+                .updatedAt(updatedAt)
+                .build();
+    }
+}
@@ -0,0 +1,59 @@
+package com.shoeapp.web;
+
+import com.shoeapp.dto.request.ShoeRequest;
+import com.shoeapp.dto.response.ShoeResponse;
+import com.shoeapp.service.ShoeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class StatementMetricsFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ShoeService shoeService;
+
+    @Test
+    void scrapeReportsRequestLatencyStatementsAndServiceTimings() throws Exception {
+        ShoeResponse shoe = shoeService.createShoe(ShoeRequest.builder()
+                .name("Metered")
+                .brand("Nike")
+                .category("Running")
+                .size("42")
+                .color("Black")
+                .price(new BigDecimal("80.00"))
+                .stock(5)
+                .build());
+        mockMvc.perform(get("/api/shoes/" + shoe.getId())).andExpect(status().isOk());
+        // Answered from the catalogue cache, without the DispatcherServlet
+        mockMvc.perform(get("/api/shoes/" + shoe.getId())).andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape)
+                .containsPattern("http_server_requests_seconds_bucket\\{.*uri=\"/api/shoes/\\{id}\"")
+                .containsPattern("http_server_requests_seconds_count\\{.*uri=\"/api/shoes/\\{id}\"} 2")
+                .containsPattern("hibernate_request_statements_count\\{method=\"GET\",uri=\"/api/shoes/\\{id}\"} 2")
+                .containsPattern("shoeapp_service_seconds_count\\{.*method=\"getShoeById\"")
+                .contains("jwt_authentication_seconds_count{result=\"verified\"")
+                .containsPattern("cache_gets_total\\{cache=\"shoes\",cache_manager=\"cacheManager\",name=\"shoes\",result=\"hit\"}")
+                .containsPattern("cache_gets_total\\{cache=\"shoeJson\",")
+                .contains("hikaricp_connections_active");
+    }
+}